@@ -0,0 +1,215 @@
+package com.travelapi.multidestination.benchmark;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import com.travelapi.multidestination.model.FlightLeg;
+import com.travelapi.multidestination.model.Itinerary;
+import com.travelapi.multidestination.model.ItinerarySearch;
+import com.travelapi.multidestination.service.AirportRegistry;
+import com.travelapi.multidestination.service.CheapestItineraryLeaderboard;
+import com.travelapi.multidestination.service.CityCatalog;
+import com.travelapi.multidestination.service.DestinationCatalog;
+import com.travelapi.multidestination.service.ItineraryAssembler;
+import com.travelapi.multidestination.service.ItineraryGeneratorService;
+import com.travelapi.multidestination.service.ItineraryWriteBehindBuffer;
+import com.travelapi.multidestination.service.OriginCatalog;
+import com.travelapi.multidestination.service.SearchPipelineMetrics;
+import com.travelapi.multidestination.service.SearchProgressTracker;
+import com.travelapi.multidestination.service.SearchResultCache;
+import com.travelapi.multidestination.service.external.AmadeusFlightService;
+import com.travelapi.multidestination.service.external.LegKey;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.tracing.Tracer;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.ClassPathResource;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.lang.reflect.Field;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Montage du cœur de la génération hors contexte Spring, sans réseau ni base :
+ * tarifs de vol déterministes, suivi d'état et écritures sans effet, métriques en mémoire sans traces.
+ */
+final class BenchmarkFixtures {
+
+    static final String ORIGIN = "LON";
+    static final LocalDate DEPARTURE_DATE = LocalDate.of(2030, 6, 1);
+    static final int MIN_DAYS_PER_CITY = 2;
+
+    private BenchmarkFixtures() {
+    }
+
+    /**
+     * Continents couvrant un catalogue de la taille demandée (12, 20 ou 28 destinations)
+     */
+    static List<String> continentsFor(int catalogSize) {
+        switch (catalogSize) {
+            case 12:
+                return Collections.singletonList("Europe");
+            case 20:
+                return Arrays.asList("Europe", "Asia");
+            case 28:
+                return Arrays.asList("Europe", "Asia", "America");
+            default:
+                throw new IllegalArgumentException("Taille de catalogue non prise en charge: " + catalogSize);
+        }
+    }
+
+    /**
+     * Recherche admissible : le maximum de jours par ville est ajusté pour que la durée soit réalisable
+     */
+    static ItinerarySearch search(int catalogSize, int numberOfCities, int tripDays) {
+        return ItinerarySearch.builder()
+                .id("benchmark")
+                .origin(ORIGIN)
+                .departureDate(DEPARTURE_DATE)
+                .returnDate(DEPARTURE_DATE.plusDays(tripDays))
+                .budget(100_000)
+                .numberOfCities(numberOfCities)
+                .minDaysPerCity(MIN_DAYS_PER_CITY)
+                .maxDaysPerCity(tripDays - (numberOfCities - 1) * MIN_DAYS_PER_CITY)
+                .continentPreferences(continentsFor(catalogSize))
+                .build();
+    }
+
+    /**
+     * Catalogue des villes livré avec l'application
+     */
+    static CityCatalog cityCatalog(AirportRegistry airportRegistry) {
+        return new CityCatalog(airportRegistry, new ClassPathResource("data/cities.tsv"));
+    }
+
+    static DestinationCatalog destinationCatalog(AirportRegistry airportRegistry) {
+        return new DestinationCatalog(airportRegistry, cityCatalog(airportRegistry));
+    }
+
+    static ItineraryGeneratorService generator(AirportRegistry airportRegistry, Scheduler scheduler) {
+        CityCatalog cityCatalog = cityCatalog(airportRegistry);
+        new OriginCatalog(airportRegistry, cityCatalog, Collections.singletonList(ORIGIN));
+        ItineraryGeneratorService generator = new ItineraryGeneratorService(
+                new DiscardingWriteBehindBuffer(),
+                new SearchResultCache(600, 1000),
+                new CheapestItineraryLeaderboard(null, 5, 60),
+                new StubAmadeusFlightService(),
+                new NoopProgressTracker(),
+                airportRegistry,
+                new DestinationCatalog(airportRegistry, cityCatalog),
+                new ItineraryAssembler(airportRegistry, cityCatalog),
+                new SearchPipelineMetrics(new SimpleMeterRegistry(), Tracer.NOOP),
+                scheduler);
+
+        // Valeurs par défaut de application.properties
+        setField(generator, "concurrentEvaluationEnabled", true);
+        setField(generator, "maxInFlightEvaluations", 16);
+        setField(generator, "prefetchWindowSize", 32);
+        setField(generator, "maxEvaluatedCombinations", 2000);
+        setField(generator, "transferDaySlack", 0);
+        setField(generator, "maxPlannedLegs", 1200);
+        return generator;
+    }
+
+    /**
+     * Les journaux de niveau DEBUG de l'application fausseraient les mesures
+     */
+    static void quietLogging() {
+        ((Logger) LoggerFactory.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME)).setLevel(Level.WARN);
+    }
+
+    /**
+     * Tarif déterministe d'un segment, entre 40 et 300
+     */
+    static double fare(String from, String to, LocalDate departureDate) {
+        int hash = (from.hashCode() * 31 + to.hashCode()) * 31 + departureDate.hashCode();
+        return 40 + Math.floorMod(hash, 261);
+    }
+
+    private static void setField(Object target, String name, Object value) {
+        try {
+            Field field = target.getClass().getDeclaredField(name);
+            field.setAccessible(true);
+            field.set(target, value);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Impossible de configurer " + name, e);
+        }
+    }
+
+    /**
+     * API de vols simulée sans aléa ni cache : chaque appel recalcule les mêmes tarifs
+     */
+    static final class StubAmadeusFlightService extends AmadeusFlightService {
+
+        StubAmadeusFlightService() {
+            super(null, null, null, null, null, null, null);
+        }
+
+        @Override
+        public Mono<Map<LegKey, FlightLeg>> prefetchLegs(Collection<LegKey> legKeys, double maxPrice) {
+            return Mono.fromSupplier(() -> {
+                Map<LegKey, FlightLeg> legs = new HashMap<>();
+                for (LegKey legKey : legKeys) {
+                    legs.put(legKey, FlightLeg.builder()
+                            .from(legKey.getFrom())
+                            .to(legKey.getTo())
+                            .departureDate(legKey.getDepartureDate())
+                            .departureTime(LocalTime.of(9, 30))
+                            .arrivalDate(legKey.getDepartureDate())
+                            .arrivalTime(LocalTime.of(12, 15))
+                            .airline("AF")
+                            .flightNumber("AF1000")
+                            .price(fare(legKey.getFrom(), legKey.getTo(), legKey.getDepartureDate()))
+                            .duration("2h45m")
+                            .build());
+                }
+                return legs;
+            });
+        }
+    }
+
+    static final class NoopProgressTracker extends SearchProgressTracker {
+
+        NoopProgressTracker() {
+            super(null);
+        }
+
+        @Override
+        public Mono<Void> markRunning(String searchId) {
+            return Mono.empty();
+        }
+
+        @Override
+        public Mono<Void> markDone(String searchId, int resultCount) {
+            return Mono.empty();
+        }
+
+        @Override
+        public Mono<Void> markFailed(String searchId, String errorMessage) {
+            return Mono.empty();
+        }
+
+        @Override
+        public Mono<Void> markCancelled(String searchId) {
+            return Mono.empty();
+        }
+    }
+
+    static final class DiscardingWriteBehindBuffer extends ItineraryWriteBehindBuffer {
+
+        DiscardingWriteBehindBuffer() {
+            super(null, 500, 5000, 200);
+        }
+
+        @Override
+        public Mono<Void> write(List<Itinerary> itineraries) {
+            return Mono.empty();
+        }
+    }
+}
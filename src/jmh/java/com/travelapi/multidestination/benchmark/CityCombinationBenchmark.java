@@ -0,0 +1,48 @@
+package com.travelapi.multidestination.benchmark;
+
+import com.travelapi.multidestination.service.AirportRegistry;
+import com.travelapi.multidestination.service.CityCombinationIterator;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Énumération complète des combinaisons de villes d'un catalogue
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CityCombinationBenchmark {
+
+    @Param({"12", "20", "28"})
+    private int catalogSize;
+
+    @Param({"2", "3", "4"})
+    private int numberOfCities;
+
+    private List<String> destinations;
+
+    @Setup
+    public void setUp() {
+        destinations = BenchmarkFixtures.destinationCatalog(new AirportRegistry())
+                .findDestinations(BenchmarkFixtures.continentsFor(catalogSize), null, null, null);
+    }
+
+    @Benchmark
+    public int enumerateCombinations(Blackhole blackhole) {
+        CityCombinationIterator combinations = new CityCombinationIterator(destinations, numberOfCities, Collections.emptyList());
+        int count = 0;
+
+        while (combinations.hasNext()) {
+            blackhole.consume(combinations.nextIndices());
+            count++;
+        }
+        return count;
+    }
+}
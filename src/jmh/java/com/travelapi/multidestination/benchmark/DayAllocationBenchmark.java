@@ -0,0 +1,52 @@
+package com.travelapi.multidestination.benchmark;
+
+import com.travelapi.multidestination.service.DayAllocationOptimizer;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Répartition optimale des jours entre les villes d'un circuit, tarifs précalculés
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DayAllocationBenchmark {
+
+    @Param({"2", "3", "4", "5"})
+    private int numberOfCities;
+
+    @Param({"10", "14", "21"})
+    private int tripDays;
+
+    private int maxDaysPerCity;
+    private double[] fares;
+    private double[] dailyCosts;
+
+    @Setup
+    public void setUp() {
+        maxDaysPerCity = tripDays - (numberOfCities - 1) * BenchmarkFixtures.MIN_DAYS_PER_CITY;
+        fares = new double[(numberOfCities + 1) * (tripDays + 1)];
+        dailyCosts = new double[numberOfCities];
+
+        for (int rank = 0; rank <= numberOfCities; rank++) {
+            for (int day = 0; day <= tripDays; day++) {
+                fares[rank * (tripDays + 1) + day] = BenchmarkFixtures.fare("C" + rank, "C" + (rank + 1),
+                        BenchmarkFixtures.DEPARTURE_DATE.plusDays(day));
+            }
+        }
+        for (int i = 0; i < numberOfCities; i++) {
+            dailyCosts[i] = 60 + 15 * i;
+        }
+    }
+
+    @Benchmark
+    public int[] optimize() {
+        int width = tripDays + 1;
+        return DayAllocationOptimizer.optimize(numberOfCities, tripDays, BenchmarkFixtures.MIN_DAYS_PER_CITY,
+                maxDaysPerCity, (rank, day) -> fares[rank * width + day], dailyCosts);
+    }
+}
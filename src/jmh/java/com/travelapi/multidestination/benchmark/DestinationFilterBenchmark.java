@@ -0,0 +1,47 @@
+package com.travelapi.multidestination.benchmark;
+
+import com.travelapi.multidestination.service.AirportRegistry;
+import com.travelapi.multidestination.service.DestinationCatalog;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Filtrage du catalogue selon les préférences d'une recherche
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DestinationFilterBenchmark {
+
+    private static final List<String> INTERESTS = Arrays.asList("culture", "food");
+    private static final List<String> EXCLUDED = Collections.singletonList("BCN");
+
+    @Param({"12", "20", "28"})
+    private int catalogSize;
+
+    private DestinationCatalog catalog;
+    private List<String> continents;
+
+    @Setup
+    public void setUp() {
+        catalog = BenchmarkFixtures.destinationCatalog(new AirportRegistry());
+        continents = BenchmarkFixtures.continentsFor(catalogSize);
+    }
+
+    @Benchmark
+    public List<String> findByContinents() {
+        return catalog.findDestinations(continents, null, "MAD", EXCLUDED);
+    }
+
+    @Benchmark
+    public List<String> findByContinentsAndInterests() {
+        return catalog.findDestinations(continents, INTERESTS, "MAD", EXCLUDED);
+    }
+}
@@ -0,0 +1,56 @@
+package com.travelapi.multidestination.benchmark;
+
+import com.travelapi.multidestination.model.Itinerary;
+import com.travelapi.multidestination.model.ItinerarySearch;
+import com.travelapi.multidestination.service.AirportRegistry;
+import com.travelapi.multidestination.service.ItineraryGeneratorService;
+import org.openjdk.jmh.annotations.*;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Génération complète d'une recherche : filtrage des destinations, préchargement des tarifs,
+ * planification des circuits et classement, écriture exclue
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GenerationBenchmark {
+
+    @Param({"12", "20", "28"})
+    private int catalogSize;
+
+    @Param({"2", "3", "4"})
+    private int numberOfCities;
+
+    @Param({"9", "14", "21"})
+    private int tripDays;
+
+    private Scheduler scheduler;
+    private ItineraryGeneratorService generator;
+    private ItinerarySearch search;
+
+    @Setup
+    public void setUp() {
+        BenchmarkFixtures.quietLogging();
+        scheduler = Schedulers.newParallel("benchmark-eval", 8);
+        generator = BenchmarkFixtures.generator(new AirportRegistry(), scheduler);
+        search = BenchmarkFixtures.search(catalogSize, numberOfCities, tripDays);
+    }
+
+    @TearDown
+    public void tearDown() {
+        scheduler.dispose();
+    }
+
+    @Benchmark
+    public List<Itinerary> generateItineraries() {
+        return generator.generateItineraries(search).block();
+    }
+}
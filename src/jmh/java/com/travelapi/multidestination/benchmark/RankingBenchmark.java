@@ -0,0 +1,52 @@
+package com.travelapi.multidestination.benchmark;
+
+import com.travelapi.multidestination.service.TopKCollector;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Classement des candidats : élagage par seuil puis tas borné, comme lors de la génération
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RankingBenchmark {
+
+    private static final int RANKING_SIZE = 12;
+
+    @Param({"1000", "20000"})
+    private int candidates;
+
+    private Integer[] items;
+    private double[] scores;
+
+    @Setup
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        items = new Integer[candidates];
+        scores = new double[candidates];
+
+        for (int i = 0; i < candidates; i++) {
+            items[i] = i;
+            scores[i] = 500 + random.nextDouble() * 4500;
+        }
+    }
+
+    @Benchmark
+    public List<Integer> rankCandidates() {
+        TopKCollector<Integer> ranking = new TopKCollector<>(RANKING_SIZE);
+
+        for (int i = 0; i < candidates; i++) {
+            if (ranking.wouldAccept(scores[i])) {
+                ranking.offer(items[i], scores[i]);
+            }
+        }
+        return ranking.toSortedList();
+    }
+}
@@ -0,0 +1,320 @@
+package com.travelapi.multidestination.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.travelapi.multidestination.service.external.AmadeusLocationCodes;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import org.springframework.core.io.ClassPathResource;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.http.server.HttpServerResponse;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Serveur local se substituant à l'API Amadeus : jeton OAuth2 et Flight Offers Search,
+ * avec les mêmes formes de requête et de réponse (une offre couvre tous les trajets demandés,
+ * ses segments indiquent des aéroports et non des villes).
+ * La latence suit une loi log-normale définie par sa médiane et son 99e centile ; une part des requêtes
+ * échoue (500) et, au-delà du débit autorisé, les requêtes sont refusées (429) comme par l'API réelle.
+ * Le prix d'un trajet dépend de sa date (jour de la semaine, saison, proximité du départ) ;
+ * il est stable d'une requête à l'autre pour un même trajet, à la variance configurée près.
+ *
+ * <pre>
+ * mvn -P loadtest compile exec:java -Dloadtest.main=com.travelapi.multidestination.loadtest.AmadeusStubServer \
+ *     -Dloadtest.args="--port=9090 --latency-median-ms=120 --latency-p99-ms=900 --error-rate=0.01 --max-rps=40"
+ * </pre>
+ * L'application s'y connecte avec le profil Spring amadeus-stub.
+ */
+public final class AmadeusStubServer {
+
+    // Quantile de la loi normale centrée réduite à 99 %
+    private static final double Z_99 = 2.3263;
+    private static final String[] CARRIERS = {"AF", "LH", "BA", "IB", "U2", "KL"};
+    private static final double MULTI_CITY_DISCOUNT = 0.95;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final AmadeusLocationCodes locationCodes =
+            new AmadeusLocationCodes(new ClassPathResource("data/amadeus-locations.tsv"));
+    private final AtomicLong issuedTokens = new AtomicLong();
+    private final AtomicLong servedRequests = new AtomicLong();
+    private final AtomicLong failedRequests = new AtomicLong();
+    private final AtomicLong throttledRequests = new AtomicLong();
+
+    private final double latencyMu;
+    private final double latencySigma;
+    private final double errorRate;
+    private final double priceVariance;
+    private final int offersPerLeg;
+    private final RateLimiter rateLimiter;
+
+    AmadeusStubServer(CommandLineOptions options) {
+        double medianMillis = options.getDouble("latency-median-ms", 120);
+        double p99Millis = Math.max(medianMillis, options.getDouble("latency-p99-ms", 800));
+
+        this.latencyMu = Math.log(medianMillis);
+        this.latencySigma = (Math.log(p99Millis) - latencyMu) / Z_99;
+        this.errorRate = options.getDouble("error-rate", 0.01);
+        this.priceVariance = options.getDouble("price-variance", 0.15);
+        this.offersPerLeg = options.getInt("offers-per-leg", 3);
+        this.rateLimiter = new RateLimiter(options.getDouble("max-rps", 40));
+    }
+
+    public static void main(String[] args) {
+        CommandLineOptions options = new CommandLineOptions(args);
+        AmadeusStubServer stub = new AmadeusStubServer(options);
+
+        DisposableServer server = HttpServer.create()
+                .port(options.getInt("port", 9090))
+                .route(routes -> routes
+                        .post("/v1/security/oauth2/token", (request, response) -> stub.issueToken(response))
+                        .post("/v2/shopping/flight-offers", (request, response) -> request.receive()
+                                .aggregate()
+                                .asString()
+                                .flatMap(body -> stub.flightOffers(body, request.requestHeaders().get("Authorization")))
+                                .flatMap(reply -> reply.send(response))))
+                .bindNow();
+
+        System.out.printf("Serveur Amadeus de substitution sur le port %d%n", server.port());
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            System.out.printf("Requêtes servies: %d, en échec: %d, refusées (429): %d%n",
+                    stub.servedRequests.get(), stub.failedRequests.get(), stub.throttledRequests.get());
+            server.disposeNow();
+        }));
+        server.onDispose().block();
+    }
+
+    private Mono<Void> issueToken(HttpServerResponse response) {
+        ObjectNode token = objectMapper.createObjectNode()
+                .put("type", "amadeusOAuth2Token")
+                .put("access_token", "stub-token-" + issuedTokens.incrementAndGet())
+                .put("token_type", "Bearer")
+                .put("expires_in", 1799)
+                .put("state", "approved");
+        return new Reply(HttpResponseStatus.OK, token).send(response);
+    }
+
+    private Mono<Reply> flightOffers(String body, String authorization) {
+        if (authorization == null || !authorization.startsWith("Bearer ")) {
+            return Mono.just(error(HttpResponseStatus.UNAUTHORIZED, 38190, "Invalid access token"));
+        }
+
+        if (!rateLimiter.tryAcquire()) {
+            throttledRequests.incrementAndGet();
+            return Mono.just(error(HttpResponseStatus.TOO_MANY_REQUESTS, 38194, "Too many requests"));
+        }
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Duration latency = Duration.ofNanos((long) (Math.exp(latencyMu + latencySigma * random.nextGaussian()) * 1_000_000));
+
+        return Mono.fromCallable(() -> {
+            if (random.nextDouble() < errorRate) {
+                failedRequests.incrementAndGet();
+                return error(HttpResponseStatus.INTERNAL_SERVER_ERROR, 141, "SYSTEM ERROR HAS OCCURRED");
+            }
+
+            servedRequests.incrementAndGet();
+            return new Reply(HttpResponseStatus.OK, offersFor(objectMapper.readTree(body)));
+        }).delaySubscription(latency);
+    }
+
+    /**
+     * Offres couvrant l'ensemble des trajets demandés, comme l'API : chaque offre porte un itinéraire
+     * par trajet, dans l'ordre de la requête, et un seul prix total (remisé au-delà d'un trajet).
+     * Les segments indiquent les aéroports desservant les villes demandées.
+     */
+    private ObjectNode offersFor(JsonNode request) {
+        List<Trip> trips = new ArrayList<>();
+        for (JsonNode originDestination : request.path("originDestinations")) {
+            String from = originDestination.path("originLocationCode").asText();
+            String to = originDestination.path("destinationLocationCode").asText();
+            LocalDate date = LocalDate.parse(originDestination.path("departureDateTimeRange").path("date").asText());
+
+            // Tirage déterministe par trajet : mêmes horaires et mêmes prix à chaque requête
+            SplittableRandom tripRandom = new SplittableRandom(((long) from.hashCode() * 31 + to.hashCode()) * 31 + date.hashCode());
+            trips.add(new Trip(from, to, date, tripRandom, basePrice(tripRandom, date)));
+        }
+
+        ArrayNode data = objectMapper.createArrayNode();
+        double discount = trips.size() > 1 ? MULTI_CITY_DISCOUNT : 1;
+
+        for (int i = 0; i < offersPerLeg && !trips.isEmpty(); i++) {
+            ObjectNode offer = offer(i + 1);
+            ArrayNode itineraries = offer.putArray("itineraries");
+            double total = 0;
+
+            for (Trip trip : trips) {
+                SplittableRandom random = trip.random;
+                total += trip.basePrice * (1 + priceVariance * (random.nextDouble() * 2 - 1)) * (1 + 0.12 * i);
+
+                LocalDateTime departure = trip.date.atTime(LocalTime.of(6 + random.nextInt(14), 5 * random.nextInt(12)));
+                Duration duration = Duration.ofMinutes(60 + random.nextInt(420));
+                String carrier = CARRIERS[random.nextInt(CARRIERS.length)];
+
+                addItinerary(itineraries, airportOf(trip.from, random), airportOf(trip.to, random),
+                        departure, duration, carrier, 1000 + random.nextInt(9000));
+            }
+
+            setPrice(offer, total * discount);
+            data.add(offer);
+        }
+
+        ObjectNode response = objectMapper.createObjectNode();
+        response.putObject("meta").put("count", data.size());
+        response.set("data", data);
+        return response;
+    }
+
+    private String airportOf(String locationCode, SplittableRandom random) {
+        List<String> airports = locationCodes.airportsOf(locationCode);
+        return airports.get(random.nextInt(airports.size()));
+    }
+
+    /**
+     * Prix de référence d'un trajet : base propre à la liaison, majorée le week-end, en été
+     * et à l'approche du départ
+     */
+    private static double basePrice(SplittableRandom legRandom, LocalDate date) {
+        double price = 60 + legRandom.nextInt(240);
+
+        DayOfWeek day = date.getDayOfWeek();
+        if (day == DayOfWeek.FRIDAY || day == DayOfWeek.SUNDAY) {
+            price *= 1.25;
+        } else if (day == DayOfWeek.TUESDAY || day == DayOfWeek.WEDNESDAY) {
+            price *= 0.9;
+        }
+
+        int month = date.getMonthValue();
+        if (month == 7 || month == 8 || month == 12) {
+            price *= 1.35;
+        }
+
+        long daysAhead = ChronoUnit.DAYS.between(LocalDate.now(), date);
+        if (daysAhead < 14) {
+            price *= 1.5;
+        } else if (daysAhead < 45) {
+            price *= 1.15;
+        }
+
+        return price;
+    }
+
+    private ObjectNode offer(int id) {
+        return objectMapper.createObjectNode()
+                .put("type", "flight-offer")
+                .put("id", String.valueOf(id))
+                .put("source", "GDS")
+                .put("numberOfBookableSeats", 9);
+    }
+
+    private static void addItinerary(ArrayNode itineraries, String fromAirport, String toAirport,
+                                     LocalDateTime departure, Duration duration, String carrier, int flightNumber) {
+        ObjectNode itinerary = itineraries.addObject()
+                .put("duration", duration.toString());
+        ObjectNode segment = itinerary.putArray("segments").addObject()
+                .put("carrierCode", carrier)
+                .put("number", String.valueOf(flightNumber))
+                .put("duration", duration.toString())
+                .put("numberOfStops", 0);
+        segment.putObject("departure").put("iataCode", fromAirport).put("at", departure.toString());
+        segment.putObject("arrival").put("iataCode", toAirport).put("at", departure.plus(duration).toString());
+    }
+
+    private static void setPrice(ObjectNode offer, double price) {
+        offer.putObject("price")
+                .put("currency", "EUR")
+                .put("total", String.format(Locale.ROOT, "%.2f", price))
+                .put("base", String.format(Locale.ROOT, "%.2f", price * 0.8));
+    }
+
+    private Reply error(HttpResponseStatus status, int code, String title) {
+        ObjectNode body = objectMapper.createObjectNode();
+        body.putArray("errors").addObject()
+                .put("status", status.code())
+                .put("code", code)
+                .put("title", title);
+        return new Reply(status, body);
+    }
+
+    private static final class Trip {
+        private final String from;
+        private final String to;
+        private final LocalDate date;
+        private final SplittableRandom random;
+        private final double basePrice;
+
+        private Trip(String from, String to, LocalDate date, SplittableRandom random, double basePrice) {
+            this.from = from;
+            this.to = to;
+            this.date = date;
+            this.random = random;
+            this.basePrice = basePrice;
+        }
+    }
+
+    private final class Reply {
+        private final HttpResponseStatus status;
+        private final JsonNode body;
+
+        private Reply(HttpResponseStatus status, JsonNode body) {
+            this.status = status;
+            this.body = body;
+        }
+
+        private Mono<Void> send(HttpServerResponse response) {
+            String json;
+            try {
+                json = objectMapper.writeValueAsString(body);
+            } catch (Exception e) {
+                return Mono.error(e);
+            }
+
+            return response.status(status)
+                    .header("Content-Type", status.code() < 400 ? "application/vnd.amadeus+json" : "application/json")
+                    .sendString(Mono.just(json))
+                    .then();
+        }
+    }
+
+    /**
+     * Seau à jetons rempli au débit autorisé, d'une capacité d'une seconde de requêtes
+     */
+    private static final class RateLimiter {
+        private final double permitsPerNano;
+        private final double capacity;
+        private double available;
+        private long refilledAt = System.nanoTime();
+
+        private RateLimiter(double permitsPerSecond) {
+            this.permitsPerNano = permitsPerSecond / 1e9;
+            this.capacity = Math.max(1, permitsPerSecond);
+            this.available = capacity;
+        }
+
+        private synchronized boolean tryAcquire() {
+            long now = System.nanoTime();
+            available = Math.min(capacity, available + (now - refilledAt) * permitsPerNano);
+            refilledAt = now;
+
+            if (available < 1) {
+                return false;
+            }
+            available--;
+            return true;
+        }
+    }
+}
@@ -0,0 +1,305 @@
+package com.travelapi.multidestination.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Injecteur de charge en boucle fermée : chaque utilisateur virtuel enchaîne ses requêtes
+ * sans pause, en tirant l'endpoint selon la répartition demandée.
+ * Les recherches sont tirées d'un jeu fixe généré à partir de la graine, pour que deux campagnes
+ * soumettent les mêmes requêtes (et profitent de la même façon des caches de l'application).
+ * Une requête sans réponse au bout de --request-timeout compte comme une erreur.
+ * Les mesures de la période de chauffe sont écartées ; le rapport donne, par endpoint,
+ * le débit et les percentiles de latence.
+ *
+ * <pre>
+ * mvn -P loadtest compile exec:java \
+ *     -Dloadtest.args="--target=http://localhost:8080 --duration=60 --warmup=10 --concurrency=32 --mix=search:2,status:3,results:3,cheapest:1,budget:1"
+ * </pre>
+ */
+public final class LoadTestDriver {
+
+    private static final String API = "/api/v1/itineraries";
+    private static final String[] ORIGINS = {"CDG", "ORY", "LYS", "MRS", "NCE", "TLS", "BOD", "NTE"};
+    private static final String[] CONTINENTS = {"Europe", "Asia", "America"};
+    private static final String[] INTERESTS = {"culture", "beach", "food", "nature", "shopping"};
+    // Nombre de searchId conservés pour les lectures
+    private static final int KNOWN_SEARCHES = 1000;
+
+    private final WebClient client;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final List<ObjectNode> searchPool;
+    private final List<String> searchIds = new CopyOnWriteArrayList<>();
+    private final Map<Endpoint, Integer> mix;
+    private final int totalWeight;
+    private final Duration requestTimeout;
+
+    private final Map<Endpoint, Histogram> latencies = new LinkedHashMap<>();
+    private final Map<Endpoint, LongAdder> errors = new LinkedHashMap<>();
+    private volatile boolean recording;
+
+    LoadTestDriver(CommandLineOptions options) {
+        this.client = WebClient.builder()
+                .baseUrl(options.get("target", "http://localhost:8080"))
+                .codecs(codecs -> codecs.defaultCodecs().maxInMemorySize(16 * 1024 * 1024))
+                .build();
+        this.searchPool = searchPool(options.getInt("searches", 50), options.getLong("seed", 42));
+        this.mix = parseMix(options.get("mix", "search:2,status:3,results:3,cheapest:1,budget:1"));
+
+        int weight = 0;
+        for (Endpoint endpoint : Endpoint.values()) {
+            weight += mix.getOrDefault(endpoint, 0);
+            latencies.put(endpoint, new ConcurrentHistogram(TimeUnit.MINUTES.toMicros(1), 3));
+            errors.put(endpoint, new LongAdder());
+        }
+        if (weight == 0) {
+            throw new IllegalArgumentException("La répartition des requêtes est vide");
+        }
+        this.totalWeight = weight;
+        this.requestTimeout = options.getDuration("request-timeout", Duration.ofSeconds(30));
+    }
+
+    public static void main(String[] args) {
+        CommandLineOptions options = new CommandLineOptions(args);
+        LoadTestDriver driver = new LoadTestDriver(options);
+
+        Duration warmup = options.getDuration("warmup", Duration.ofSeconds(10));
+        Duration duration = options.getDuration("duration", Duration.ofSeconds(60));
+        int concurrency = options.getInt("concurrency", 16);
+
+        System.out.printf("Chauffe %ds puis mesure %ds avec %d utilisateurs virtuels%n",
+                warmup.getSeconds(), duration.getSeconds(), concurrency);
+        driver.run(warmup, duration, concurrency);
+    }
+
+    private void run(Duration warmup, Duration duration, int concurrency) {
+        long measureStart = System.nanoTime() + warmup.toNanos();
+        long end = measureStart + duration.toNanos();
+
+        Mono.delay(warmup).subscribe(tick -> recording = true);
+
+        Flux.range(0, concurrency)
+                .flatMap(user -> virtualUser(end), concurrency)
+                .blockLast();
+
+        report((System.nanoTime() - measureStart) / 1e9);
+    }
+
+    /**
+     * Enchaîne les requêtes jusqu'à l'échéance, chacune partant à la fin de la précédente
+     */
+    private Mono<Void> virtualUser(long end) {
+        return Mono.defer(this::nextRequest)
+                .repeat(() -> System.nanoTime() < end)
+                .then();
+    }
+
+    private Mono<Void> nextRequest() {
+        Endpoint picked = pickEndpoint();
+        String searchId = searchIds.isEmpty() ? null : searchIds.get(ThreadLocalRandom.current().nextInt(searchIds.size()));
+
+        // Pas encore de recherche connue : les lectures par identifiant deviennent des recherches
+        Endpoint endpoint = searchId == null && (picked == Endpoint.STATUS || picked == Endpoint.RESULTS)
+                ? Endpoint.SEARCH
+                : picked;
+        long start = System.nanoTime();
+
+        return send(endpoint, searchId)
+                .timeout(requestTimeout)
+                .doOnSuccess(ignored -> record(endpoint, start, false))
+                .onErrorResume(e -> {
+                    record(endpoint, start, true);
+                    return Mono.empty();
+                });
+    }
+
+    private Mono<Void> send(Endpoint endpoint, String searchId) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+
+        switch (endpoint) {
+            case SEARCH:
+                return client.post().uri(API + "/search")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .bodyValue(searchPool.get(random.nextInt(searchPool.size())))
+                        .retrieve()
+                        .bodyToMono(JsonNode.class)
+                        .doOnNext(this::rememberSearch)
+                        .then();
+            case STATUS:
+                return get(API + "/search/{searchId}/status", searchId);
+            case RESULTS:
+                return get(API + "/search/{searchId}?limit=20", searchId);
+            case CHEAPEST:
+                return get(API + "/cheapest");
+            default:
+                return get(API + "/budget/{maxBudget}?limit=20", 500 + random.nextInt(30) * 100);
+        }
+    }
+
+    private Mono<Void> get(String uri, Object... variables) {
+        return client.method(HttpMethod.GET).uri(uri, variables)
+                .retrieve()
+                .toBodilessEntity()
+                .then();
+    }
+
+    private void rememberSearch(JsonNode response) {
+        String searchId = response.path("searchId").asText(null);
+        if (searchId == null) {
+            return;
+        }
+
+        if (searchIds.size() < KNOWN_SEARCHES) {
+            searchIds.add(searchId);
+        } else {
+            searchIds.set(ThreadLocalRandom.current().nextInt(KNOWN_SEARCHES), searchId);
+        }
+    }
+
+    private void record(Endpoint endpoint, long start, boolean failed) {
+        if (!recording) {
+            return;
+        }
+
+        latencies.get(endpoint).recordValue(Math.max(1, (System.nanoTime() - start) / 1000));
+        if (failed) {
+            errors.get(endpoint).increment();
+        }
+    }
+
+    private Endpoint pickEndpoint() {
+        int draw = ThreadLocalRandom.current().nextInt(totalWeight);
+        for (Map.Entry<Endpoint, Integer> entry : mix.entrySet()) {
+            draw -= entry.getValue();
+            if (draw < 0) {
+                return entry.getKey();
+            }
+        }
+        throw new IllegalStateException("Répartition des requêtes incohérente");
+    }
+
+    private void report(double seconds) {
+        System.out.printf("%n%-10s %9s %8s %9s %9s %9s %9s %9s%n",
+                "endpoint", "requêtes", "erreurs", "req/s", "p50 ms", "p99 ms", "p999 ms", "max ms");
+
+        Histogram all = new Histogram(TimeUnit.MINUTES.toMicros(1), 3);
+        long allErrors = 0;
+
+        for (Endpoint endpoint : Endpoint.values()) {
+            Histogram histogram = latencies.get(endpoint);
+            long failed = errors.get(endpoint).sum();
+            if (histogram.getTotalCount() > 0) {
+                printLine(endpoint.label, histogram, failed, seconds);
+                all.add(histogram);
+                allErrors += failed;
+            }
+        }
+
+        printLine("total", all, allErrors, seconds);
+    }
+
+    private static void printLine(String label, Histogram histogram, long failed, double seconds) {
+        System.out.printf("%-10s %9d %8d %9.1f %9.1f %9.1f %9.1f %9.1f%n",
+                label,
+                histogram.getTotalCount(),
+                failed,
+                histogram.getTotalCount() / seconds,
+                histogram.getValueAtPercentile(50) / 1000.0,
+                histogram.getValueAtPercentile(99) / 1000.0,
+                histogram.getValueAtPercentile(99.9) / 1000.0,
+                histogram.getMaxValue() / 1000.0);
+    }
+
+    /**
+     * Jeu de recherches reproductible : origines, dates, nombre de villes et préférences tirés de la graine
+     */
+    private List<ObjectNode> searchPool(int size, long seed) {
+        Random random = new Random(seed);
+        LocalDate today = LocalDate.now();
+        List<ObjectNode> pool = new ArrayList<>(size);
+
+        for (int i = 0; i < size; i++) {
+            int numberOfCities = 2 + random.nextInt(3);
+            int minDays = 2 + random.nextInt(2);
+            LocalDate departure = today.plusDays(20 + random.nextInt(120));
+            LocalDate returnDate = departure.plusDays((long) numberOfCities * (minDays + 1) + random.nextInt(5));
+
+            ObjectNode search = objectMapper.createObjectNode()
+                    .put("origin", ORIGINS[random.nextInt(ORIGINS.length)])
+                    .put("departureDate", departure.toString())
+                    .put("returnDate", returnDate.toString())
+                    .put("budget", 800 + random.nextInt(25) * 100)
+                    .put("numberOfCities", numberOfCities)
+                    .put("minDaysPerCity", minDays)
+                    .put("maxDaysPerCity", minDays + 2 + random.nextInt(3));
+
+            ObjectNode preferences = search.putObject("preferences");
+            preferences.putArray("continent").add(CONTINENTS[random.nextInt(CONTINENTS.length)]);
+            ArrayNode interests = preferences.putArray("interests");
+            if (random.nextBoolean()) {
+                interests.add(INTERESTS[random.nextInt(INTERESTS.length)]);
+            }
+            pool.add(search);
+        }
+        return pool;
+    }
+
+    /**
+     * Répartition "endpoint:poids,..." ; les endpoints absents ne sont pas sollicités
+     */
+    private static Map<Endpoint, Integer> parseMix(String value) {
+        Map<Endpoint, Integer> weights = new LinkedHashMap<>();
+        for (String part : value.split(",")) {
+            String[] pair = part.trim().split(":");
+            int weight = pair.length > 1 ? Integer.parseInt(pair[1].trim()) : 1;
+            if (weight > 0) {
+                weights.put(Endpoint.of(pair[0].trim()), weight);
+            }
+        }
+        return weights;
+    }
+
+    private enum Endpoint {
+        SEARCH("search"),
+        STATUS("status"),
+        RESULTS("results"),
+        CHEAPEST("cheapest"),
+        BUDGET("budget");
+
+        private final String label;
+
+        Endpoint(String label) {
+            this.label = label;
+        }
+
+        private static Endpoint of(String label) {
+            for (Endpoint endpoint : values()) {
+                if (endpoint.label.equals(label)) {
+                    return endpoint;
+                }
+            }
+            throw new IllegalArgumentException("Endpoint inconnu dans la répartition: " + label);
+        }
+    }
+}
@@ -3,8 +3,6 @@ package com.travelapi.multidestination;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.data.mongodb.repository.config.EnableMongoRepositories;
-import org.springframework.web.reactive.function.client.WebClient;
-import org.springframework.context.annotation.Bean;
 
 import io.swagger.v3.oas.annotations.OpenAPIDefinition;
 import io.swagger.v3.oas.annotations.info.Info;
@@ -25,9 +23,4 @@ public class MultiDestinationApplication {
     public static void main(String[] args) {
         SpringApplication.run(MultiDestinationApplication.class, args);
     }
-    
-    @Bean
-    public WebClient.Builder webClientBuilder() {
-        return WebClient.builder();
-    }
 }
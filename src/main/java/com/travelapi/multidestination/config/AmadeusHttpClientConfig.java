@@ -0,0 +1,156 @@
+package com.travelapi.multidestination.config;
+
+import com.travelapi.multidestination.service.external.UpstreamGuard;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.netty.channel.ChannelOption;
+import io.netty.handler.timeout.WriteTimeoutHandler;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Client HTTP de l'API Amadeus : pool de connexions dédié, délais de connexion et de lecture,
+ * HTTP/2 négocié lorsque l'API est jointe en HTTPS.
+ * Chaque service amont (authentification, recherche d'offres) a son propre disjoncteur et sa cloison.
+ */
+@Configuration
+@Slf4j
+public class AmadeusHttpClientConfig {
+
+    public static final String FLIGHT_OFFERS_UPSTREAM = "amadeus-flight-offers";
+    public static final String AUTH_UPSTREAM = "amadeus-auth";
+
+    /**
+     * Connexions conservées entre les requêtes, fermées avant que le serveur ne les abandonne ;
+     * au-delà du pool, les requêtes attendent une connexion dans une file bornée
+     */
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider amadeusConnectionProvider(
+            @Value("${api.amadeus.http.max-connections:32}") int maxConnections,
+            @Value("${api.amadeus.http.pending-acquire-max-count:64}") int pendingAcquireMaxCount,
+            @Value("${api.amadeus.http.pending-acquire-timeout-ms:1000}") long pendingAcquireTimeoutMillis,
+            @Value("${api.amadeus.http.max-idle-time-seconds:30}") long maxIdleTimeSeconds,
+            @Value("${api.amadeus.http.max-life-time-seconds:300}") long maxLifeTimeSeconds) {
+        return ConnectionProvider.builder("amadeus")
+                .maxConnections(maxConnections)
+                .pendingAcquireMaxCount(pendingAcquireMaxCount)
+                .pendingAcquireTimeout(Duration.ofMillis(pendingAcquireTimeoutMillis))
+                .maxIdleTime(Duration.ofSeconds(maxIdleTimeSeconds))
+                .maxLifeTime(Duration.ofSeconds(maxLifeTimeSeconds))
+                .evictInBackground(Duration.ofSeconds(maxIdleTimeSeconds))
+                .metrics(true)
+                .build();
+    }
+
+    @Bean
+    @Qualifier("amadeusWebClient")
+    public WebClient amadeusWebClient(WebClient.Builder webClientBuilder,
+                                      ConnectionProvider amadeusConnectionProvider,
+                                      @Value("${api.amadeus.baseUrl}") String baseUrl,
+                                      @Value("${api.amadeus.http.connect-timeout-ms:2000}") int connectTimeoutMillis,
+                                      @Value("${api.amadeus.http.response-timeout-ms:8000}") long responseTimeoutMillis) {
+        // HTTP/2 n'est négocié (ALPN) que sur TLS ; en clair, l'API de substitution parle HTTP/1.1
+        HttpProtocol[] protocols = baseUrl.startsWith("https")
+                ? new HttpProtocol[]{HttpProtocol.H2, HttpProtocol.HTTP11}
+                : new HttpProtocol[]{HttpProtocol.HTTP11};
+
+        HttpClient httpClient = HttpClient.create(amadeusConnectionProvider)
+                .protocol(protocols)
+                .keepAlive(true)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, connectTimeoutMillis)
+                .option(ChannelOption.SO_KEEPALIVE, true)
+                .responseTimeout(Duration.ofMillis(responseTimeoutMillis))
+                // Le délai de réponse ne court que pendant une requête : il ne ferme pas les connexions au repos
+                .doOnConnected(connection -> connection
+                        .addHandlerLast(new WriteTimeoutHandler(responseTimeoutMillis, TimeUnit.MILLISECONDS)));
+
+        log.info("Client HTTP Amadeus: protocoles {}, connexion {} ms, réponse {} ms",
+                Arrays.toString(protocols), connectTimeoutMillis, responseTimeoutMillis);
+
+        return webClientBuilder.clone()
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .build();
+    }
+
+    /**
+     * Un disjoncteur s'ouvre lorsque la part d'échecs ou d'appels lents dépasse le seuil
+     * sur la fenêtre glissante ; seules les défaillances du service amont sont comptées comme des échecs
+     */
+    @Bean
+    public CircuitBreakerRegistry circuitBreakerRegistry(
+            @Value("${api.amadeus.circuit-breaker.failure-rate-threshold:50}") float failureRateThreshold,
+            @Value("${api.amadeus.circuit-breaker.slow-call-duration-ms:5000}") long slowCallDurationMillis,
+            @Value("${api.amadeus.circuit-breaker.sliding-window-size:20}") int slidingWindowSize,
+            @Value("${api.amadeus.circuit-breaker.minimum-number-of-calls:10}") int minimumNumberOfCalls,
+            @Value("${api.amadeus.circuit-breaker.wait-duration-in-open-state-seconds:30}") long openStateSeconds) {
+        return CircuitBreakerRegistry.of(CircuitBreakerConfig.custom()
+                .failureRateThreshold(failureRateThreshold)
+                .slowCallRateThreshold(failureRateThreshold)
+                .slowCallDurationThreshold(Duration.ofMillis(slowCallDurationMillis))
+                .slidingWindowType(CircuitBreakerConfig.SlidingWindowType.COUNT_BASED)
+                .slidingWindowSize(slidingWindowSize)
+                .minimumNumberOfCalls(minimumNumberOfCalls)
+                .waitDurationInOpenState(Duration.ofSeconds(openStateSeconds))
+                .permittedNumberOfCallsInHalfOpenState(3)
+                .recordException(UpstreamGuard::isUpstreamFailure)
+                .build());
+    }
+
+    /**
+     * Sans attente : une cloison pleine refuse l'appel (attendre bloquerait la boucle d'événements)
+     */
+    @Bean
+    public BulkheadRegistry bulkheadRegistry(
+            @Value("${api.amadeus.bulkhead.max-concurrent-calls:64}") int maxConcurrentCalls) {
+        return BulkheadRegistry.of(BulkheadConfig.custom()
+                .maxConcurrentCalls(maxConcurrentCalls)
+                .maxWaitDuration(Duration.ZERO)
+                .build());
+    }
+
+    @Bean
+    @Qualifier(FLIGHT_OFFERS_UPSTREAM)
+    public UpstreamGuard amadeusFlightOffersGuard(CircuitBreakerRegistry circuitBreakerRegistry,
+                                                  BulkheadRegistry bulkheadRegistry,
+                                                  @Value("${api.amadeus.retry.max-retries:2}") int maxRetries,
+                                                  @Value("${api.amadeus.retry.min-backoff-ms:100}") long minBackoffMillis,
+                                                  @Value("${api.amadeus.retry.max-backoff-ms:1000}") long maxBackoffMillis) {
+        return new UpstreamGuard(FLIGHT_OFFERS_UPSTREAM,
+                circuitBreakerRegistry.circuitBreaker(FLIGHT_OFFERS_UPSTREAM),
+                bulkheadRegistry.bulkhead(FLIGHT_OFFERS_UPSTREAM),
+                maxRetries, Duration.ofMillis(minBackoffMillis), Duration.ofMillis(maxBackoffMillis));
+    }
+
+    /**
+     * Le jeton est demandé par un seul appel à la fois : la cloison n'a besoin que d'une place
+     */
+    @Bean
+    @Qualifier(AUTH_UPSTREAM)
+    public UpstreamGuard amadeusAuthGuard(CircuitBreakerRegistry circuitBreakerRegistry,
+                                          BulkheadRegistry bulkheadRegistry,
+                                          @Value("${api.amadeus.retry.max-retries:2}") int maxRetries,
+                                          @Value("${api.amadeus.retry.min-backoff-ms:100}") long minBackoffMillis,
+                                          @Value("${api.amadeus.retry.max-backoff-ms:1000}") long maxBackoffMillis) {
+        return new UpstreamGuard(AUTH_UPSTREAM,
+                circuitBreakerRegistry.circuitBreaker(AUTH_UPSTREAM),
+                bulkheadRegistry.bulkhead(AUTH_UPSTREAM, BulkheadConfig.custom()
+                        .maxConcurrentCalls(1)
+                        .maxWaitDuration(Duration.ZERO)
+                        .build()),
+                maxRetries, Duration.ofMillis(minBackoffMillis), Duration.ofMillis(maxBackoffMillis));
+    }
+}
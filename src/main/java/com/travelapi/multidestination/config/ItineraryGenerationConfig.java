@@ -0,0 +1,27 @@
+package com.travelapi.multidestination.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Configuration des ressources dédiées à la génération d'itinéraires
+ */
+@Configuration
+public class ItineraryGenerationConfig {
+
+    @Value("${itinerary.generation.pool-size:8}")
+    private int poolSize;
+
+    /**
+     * Threads réservés à l'évaluation des combinaisons de villes, seul travail de calcul
+     * de la génération. Les attentes d'entrées-sorties (API de vols, base) n'occupent aucun
+     * de ces threads, ni ceux du serveur web : une recherche en attente ne coûte qu'un abonnement.
+     */
+    @Bean(name = "itineraryEvaluationScheduler", destroyMethod = "dispose")
+    public Scheduler itineraryEvaluationScheduler() {
+        return Schedulers.newParallel("itinerary-eval", poolSize);
+    }
+}
@@ -2,18 +2,16 @@ package com.travelapi.multidestination.config;
 
 import com.mongodb.ConnectionString;
 import com.mongodb.MongoClientSettings;
-import com.mongodb.client.MongoClient;
-import com.mongodb.client.MongoClients;
+import com.mongodb.reactivestreams.client.MongoClient;
+import com.mongodb.reactivestreams.client.MongoClients;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.data.mongodb.config.AbstractMongoClientConfiguration;
-import org.springframework.data.mongodb.core.MongoTemplate;
-import org.springframework.data.mongodb.repository.config.EnableMongoRepositories;
+import org.springframework.data.mongodb.config.AbstractReactiveMongoConfiguration;
+import org.springframework.data.mongodb.repository.config.EnableReactiveMongoRepositories;
 
 @Configuration
-//@EnableMongoRepositories(basePackages = "com.travelapi.multidestination.repository")
-public class MongoConfig extends AbstractMongoClientConfiguration {
+//@EnableReactiveMongoRepositories(basePackages = "com.travelapi.multidestination.repository")
+public class MongoConfig extends AbstractReactiveMongoConfiguration {
 
     @Value("${spring.data.mongodb.host}")
     private String host;
@@ -24,22 +22,25 @@ public class MongoConfig extends AbstractMongoClientConfiguration {
     @Value("${spring.data.mongodb.database}")
     private String database;
 
+    @Value("${spring.data.mongodb.auto-index-creation:false}")
+    private boolean autoIndexCreation;
+
     @Override
     protected String getDatabaseName() {
         return database;
     }
 
     @Override
-    public MongoClient mongoClient() {
+    protected boolean autoIndexCreation() {
+        return autoIndexCreation;
+    }
+
+    @Override
+    public MongoClient reactiveMongoClient() {
         ConnectionString connectionString = new ConnectionString("mongodb://" + host + ":" + port + "/" + database);
         MongoClientSettings mongoClientSettings = MongoClientSettings.builder()
                 .applyConnectionString(connectionString)
                 .build();
         return MongoClients.create(mongoClientSettings);
     }
-
-    @Bean
-    public MongoTemplate mongoTemplate() {
-        return new MongoTemplate(mongoClient(), getDatabaseName());
-    }
 }
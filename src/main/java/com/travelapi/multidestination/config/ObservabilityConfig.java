@@ -0,0 +1,159 @@
+package com.travelapi.multidestination.config;
+
+import com.travelapi.multidestination.service.ItineraryService;
+import com.travelapi.multidestination.service.ItineraryWriteBehindBuffer;
+import com.travelapi.multidestination.service.SearchPipelineMetrics;
+import com.travelapi.multidestination.service.SearchResultCache;
+import com.travelapi.multidestination.service.external.AmadeusFlightService;
+import com.travelapi.multidestination.service.external.AmadeusRateLimiter;
+import com.travelapi.multidestination.service.external.AmadeusTokenManager;
+import com.travelapi.multidestination.service.external.UpstreamGuard;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.micrometer.tagged.TaggedBulkheadMetrics;
+import io.github.resilience4j.micrometer.tagged.TaggedCircuitBreakerMetrics;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.tracing.Tracer;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+
+/**
+ * Métriques et traces exposées par l'actuator (/actuator/metrics, /actuator/prometheus)
+ */
+@Configuration
+public class ObservabilityConfig {
+
+    /**
+     * Sans pont de traçage configuré, les étapes restent mesurées mais ne produisent pas de spans
+     */
+    @Bean
+    public SearchPipelineMetrics searchPipelineMetrics(MeterRegistry meterRegistry, ObjectProvider<Tracer> tracer) {
+        return new SearchPipelineMetrics(meterRegistry, tracer.getIfAvailable(() -> Tracer.NOOP));
+    }
+
+    /**
+     * Profondeur des files d'attente et compteurs des caches, lus à chaque collecte
+     */
+    @Bean
+    public MeterBinder searchQueueMetrics(ItineraryService itineraryService,
+                                          ItineraryWriteBehindBuffer itineraryWriteBehindBuffer,
+                                          AmadeusFlightService amadeusFlightService,
+                                          AmadeusTokenManager amadeusTokenManager,
+                                          SearchResultCache searchResultCache) {
+        return registry -> {
+            Gauge.builder("itinerary.search.active", itineraryService, ItineraryService::getActiveSearchCount)
+                    .description("Recherches en cours de génération")
+                    .register(registry);
+
+            Gauge.builder("itinerary.persistence.buffered", itineraryWriteBehindBuffer,
+                            buffer -> buffer.getStats().getBufferedCount())
+                    .description("Itinéraires en tampon, pas encore envoyés")
+                    .register(registry);
+            Gauge.builder("itinerary.persistence.admitted", itineraryWriteBehindBuffer,
+                            buffer -> buffer.getStats().getAdmittedCount())
+                    .description("Itinéraires acceptés et pas encore confirmés par la base")
+                    .register(registry);
+            Gauge.builder("itinerary.persistence.waiting", itineraryWriteBehindBuffer,
+                            buffer -> buffer.getStats().getWaitingWrites())
+                    .description("Écritures en attente de place dans le tampon")
+                    .register(registry);
+            FunctionCounter.builder("itinerary.persistence.written", itineraryWriteBehindBuffer,
+                            buffer -> buffer.getStats().getFlushedItineraries())
+                    .register(registry);
+            FunctionCounter.builder("itinerary.persistence.failed", itineraryWriteBehindBuffer,
+                            buffer -> buffer.getStats().getFailedItineraries())
+                    .register(registry);
+
+            Gauge.builder("amadeus.requests.in-flight", amadeusFlightService,
+                            service -> service.getCoalescingStats().getInFlightCount())
+                    .description("Segments en cours de chargement auprès de l'API")
+                    .register(registry);
+            FunctionCounter.builder("amadeus.requests.collapsed", amadeusFlightService,
+                            service -> service.getCoalescingStats().getCollapsedCount())
+                    .description("Segments rattachés à un chargement déjà en cours")
+                    .register(registry);
+            FunctionCounter.builder("amadeus.requests.collapsed-failed", amadeusFlightService,
+                            service -> service.getCoalescingStats().getFailedCount())
+                    .description("Segments rattachés à un chargement en échec, absents du résultat")
+                    .register(registry);
+            FunctionCounter.builder("amadeus.prefetch.dropped-batches", amadeusFlightService,
+                            AmadeusFlightService::getDroppedBatchCount)
+                    .description("Lots de segments abandonnés après l'échec de leur requête")
+                    .register(registry);
+            FunctionCounter.builder("amadeus.prefetch.dropped-legs", amadeusFlightService,
+                            AmadeusFlightService::getDroppedLegCount)
+                    .description("Segments non tarifés parce que leur lot a été abandonné")
+                    .register(registry);
+            FunctionCounter.builder("amadeus.leg-cache.requests", amadeusFlightService,
+                            service -> service.getLegCacheStats().getHitCount())
+                    .tag("result", "hit")
+                    .register(registry);
+            FunctionCounter.builder("amadeus.leg-cache.requests", amadeusFlightService,
+                            service -> service.getLegCacheStats().getMissCount())
+                    .tag("result", "miss")
+                    .register(registry);
+            Gauge.builder("amadeus.leg-cache.size", amadeusFlightService,
+                            service -> service.getLegCacheStats().getSize())
+                    .register(registry);
+            FunctionCounter.builder("amadeus.token.refreshes", amadeusTokenManager,
+                            AmadeusTokenManager::getRefreshCount)
+                    .register(registry);
+
+            FunctionCounter.builder("itinerary.result-cache.requests", searchResultCache,
+                            cache -> cache.getStats().getHitCount())
+                    .tag("result", "hit")
+                    .register(registry);
+            FunctionCounter.builder("itinerary.result-cache.requests", searchResultCache,
+                            cache -> cache.getStats().getMissCount())
+                    .tag("result", "miss")
+                    .register(registry);
+            Gauge.builder("itinerary.result-cache.size", searchResultCache,
+                            cache -> cache.getStats().getSize())
+                    .register(registry);
+        };
+    }
+
+    /**
+     * État des disjoncteurs et des cloisons de chaque service amont, nouvelles tentatives émises
+     * et régulation du débit vers l'API de vols
+     */
+    @Bean
+    public MeterBinder upstreamMetrics(CircuitBreakerRegistry circuitBreakerRegistry,
+                                       BulkheadRegistry bulkheadRegistry,
+                                       List<UpstreamGuard> upstreamGuards,
+                                       AmadeusRateLimiter amadeusRateLimiter) {
+        return registry -> {
+            TaggedCircuitBreakerMetrics.ofCircuitBreakerRegistry(circuitBreakerRegistry).bindTo(registry);
+            TaggedBulkheadMetrics.ofBulkheadRegistry(bulkheadRegistry).bindTo(registry);
+
+            for (UpstreamGuard guard : upstreamGuards) {
+                FunctionCounter.builder("upstream.retries", guard, upstream -> upstream.getStats().getRetryCount())
+                        .description("Nouvelles tentatives après une défaillance du service amont")
+                        .tag("upstream", guard.getName())
+                        .register(registry);
+            }
+
+            Gauge.builder("amadeus.rate-limit.concurrency-limit", amadeusRateLimiter,
+                            limiter -> limiter.getStats().getConcurrencyLimit())
+                    .description("Limite de concurrence adaptative des requêtes à l'API de vols")
+                    .register(registry);
+            Gauge.builder("amadeus.rate-limit.in-flight", amadeusRateLimiter,
+                            limiter -> limiter.getStats().getInFlight())
+                    .register(registry);
+            Gauge.builder("amadeus.rate-limit.waiting", amadeusRateLimiter,
+                            limiter -> limiter.getStats().getWaitingRequests())
+                    .description("Requêtes en attente d'autorisation")
+                    .register(registry);
+            FunctionCounter.builder("amadeus.rate-limit.throttled", amadeusRateLimiter,
+                            limiter -> limiter.getStats().getThrottledResponses())
+                    .description("Réponses 429 reçues de l'API de vols")
+                    .register(registry);
+        };
+    }
+}
@@ -2,7 +2,9 @@ package com.travelapi.multidestination.controller;
 
 import com.travelapi.multidestination.model.Itinerary;
 import com.travelapi.multidestination.model.ItinerarySearch;
+import com.travelapi.multidestination.model.dto.ItineraryPage;
 import com.travelapi.multidestination.model.dto.ItinerarySearchRequest;
+import com.travelapi.multidestination.model.dto.SearchStreamEvent;
 import com.travelapi.multidestination.service.ItineraryService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -14,8 +16,12 @@ import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 import java.util.HashMap;
 import java.util.List;
@@ -36,42 +42,114 @@ public class ItineraryController {
         description = "Crée une nouvelle recherche d'itinéraires multi-destinations basée sur les critères spécifiés",
         responses = {
             @ApiResponse(responseCode = "201", description = "Recherche créée avec succès"),
-            @ApiResponse(responseCode = "400", description = "Requête invalide")
+            @ApiResponse(responseCode = "400", description = "Requête invalide"),
+            @ApiResponse(responseCode = "503", description = "File des recherches saturée")
         }
     )
-    public ResponseEntity<Map<String, Object>> searchItineraries(
+    public Mono<ResponseEntity<Map<String, Object>>> searchItineraries(
             @Valid @RequestBody ItinerarySearchRequest request) {
         log.info("Nouvelle requête de recherche d'itinéraires depuis {}", request.getOrigin());
         
-        ItinerarySearch search = itineraryService.createSearch(request);
+        return itineraryService.createSearch(request)
+                .map(search -> {
+                    Map<String, Object> response = new HashMap<>();
+                    response.put("searchId", search.getId());
+                    response.put("status", search.getStatus());
+                    response.put("message", "Recherche d'itinéraires initiée avec succès");
+                    
+                    return new ResponseEntity<>(response, HttpStatus.CREATED);
+                });
+    }
+
+    @PostMapping(value = "/search/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(
+        summary = "Rechercher des itinéraires en continu (SSE)",
+        description = "Crée une recherche et diffuse chaque itinéraire dès qu'il entre dans le classement "
+                + "(événements 'itinerary'), puis un événement 'complete' portant le classement final. "
+                + "La génération est interrompue si le client se déconnecte.",
+        responses = {
+            @ApiResponse(responseCode = "200", description = "Flux d'événements ouvert"),
+            @ApiResponse(responseCode = "400", description = "Requête invalide"),
+            @ApiResponse(responseCode = "503", description = "Trop de recherches en cours")
+        }
+    )
+    public Flux<ServerSentEvent<SearchStreamEvent>> streamSearchEvents(
+            @Valid @RequestBody ItinerarySearchRequest request) {
+        log.info("Nouvelle recherche diffusée en SSE depuis {}", request.getOrigin());
         
-        Map<String, Object> response = new HashMap<>();
-        response.put("searchId", search.getId());
-        response.put("message", "Recherche d'itinéraires initiée avec succès");
+        return itineraryService.streamSearch(request)
+                .map(event -> ServerSentEvent.builder(event)
+                        .event(event.getType().name().toLowerCase())
+                        .build());
+    }
+
+    @PostMapping(value = "/search/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(
+        summary = "Rechercher des itinéraires en continu (NDJSON)",
+        description = "Même flux que la variante SSE, un événement JSON par ligne"
+    )
+    public Flux<SearchStreamEvent> streamSearchNdjson(
+            @Valid @RequestBody ItinerarySearchRequest request) {
+        log.info("Nouvelle recherche diffusée en NDJSON depuis {}", request.getOrigin());
+        
+        return itineraryService.streamSearch(request);
+    }
+
+    @GetMapping("/search/{searchId}/status")
+    @Operation(
+        summary = "Obtenir l'état d'une recherche",
+        description = "Indique si la génération des itinéraires est en attente, en cours, terminée ou en échec",
+        responses = {
+            @ApiResponse(responseCode = "200", description = "État récupéré avec succès"),
+            @ApiResponse(responseCode = "404", description = "Recherche non trouvée")
+        }
+    )
+    public Mono<ResponseEntity<Map<String, Object>>> getSearchStatus(
+            @Parameter(description = "ID de la recherche") @PathVariable String searchId) {
+        log.info("Récupération de l'état de la recherche {}", searchId);
         
-        return new ResponseEntity<>(response, HttpStatus.CREATED);
+        return itineraryService.getSearchStatus(searchId)
+                .map(search -> {
+                    Map<String, Object> response = new HashMap<>();
+                    response.put("searchId", search.getId());
+                    response.put("status", search.getStatus());
+                    response.put("progress", search.getProgress());
+                    response.put("resultCount", search.getResultCount());
+                    if (search.getErrorMessage() != null) {
+                        response.put("errorMessage", search.getErrorMessage());
+                    }
+                    if (search.getResultSourceSearchId() != null) {
+                        response.put("resultSourceSearchId", search.getResultSourceSearchId());
+                    }
+                    return new ResponseEntity<>(response, HttpStatus.OK);
+                })
+                .defaultIfEmpty(new ResponseEntity<>(HttpStatus.NOT_FOUND));
     }
 
     @GetMapping("/search/{searchId}")
     @Operation(
         summary = "Obtenir les résultats d'une recherche",
-        description = "Récupère tous les itinéraires correspondant à une recherche spécifique",
+        description = "Récupère une page des itinéraires d'une recherche, du moins cher au plus cher. "
+                + "Les segments et villes ne sont inclus que si details=true ; "
+                + "la page suivante s'obtient en repassant nextCursor.",
         responses = {
             @ApiResponse(responseCode = "200", description = "Itinéraires récupérés avec succès"),
+            @ApiResponse(responseCode = "400", description = "Curseur ou taille de page invalide"),
             @ApiResponse(responseCode = "404", description = "Recherche non trouvée")
         }
     )
-    public ResponseEntity<List<Itinerary>> getItinerariesForSearch(
-            @Parameter(description = "ID de la recherche") @PathVariable String searchId) {
+    public Mono<ResponseEntity<ItineraryPage>> getItinerariesForSearch(
+            @Parameter(description = "ID de la recherche") @PathVariable String searchId,
+            @Parameter(description = "Curseur retourné par la page précédente") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Nombre d'itinéraires par page (20 par défaut, 100 au plus)") @RequestParam(required = false) Integer limit,
+            @Parameter(description = "Inclure segments, villes et conseils") @RequestParam(defaultValue = "false") boolean details) {
         log.info("Récupération des itinéraires pour la recherche {}", searchId);
         
-        List<Itinerary> itineraries = itineraryService.getItinerariesForSearch(searchId);
-        
-        if (itineraries.isEmpty()) {
-            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
-        }
-        
-        return new ResponseEntity<>(itineraries, HttpStatus.OK);
+        return itineraryService.getItinerariesForSearch(searchId, cursor, limit, details)
+                .map(page -> page.getItems().isEmpty() && cursor == null
+                        ? new ResponseEntity<ItineraryPage>(HttpStatus.NOT_FOUND)
+                        : new ResponseEntity<>(page, HttpStatus.OK))
+                .defaultIfEmpty(new ResponseEntity<>(HttpStatus.NOT_FOUND));
     }
 
     @GetMapping("/{id}")
@@ -87,39 +165,45 @@ public class ItineraryController {
             @ApiResponse(responseCode = "404", description = "Itinéraire non trouvé")
         }
     )
-    public ResponseEntity<Itinerary> getItineraryById(
+    public Mono<ResponseEntity<Itinerary>> getItineraryById(
             @Parameter(description = "ID de l'itinéraire") @PathVariable String id) {
         log.info("Récupération de l'itinéraire {}", id);
         
         return itineraryService.getItineraryById(id)
                 .map(itinerary -> new ResponseEntity<>(itinerary, HttpStatus.OK))
-                .orElse(new ResponseEntity<>(HttpStatus.NOT_FOUND));
+                .defaultIfEmpty(new ResponseEntity<>(HttpStatus.NOT_FOUND));
     }
 
     @GetMapping("/cheapest")
     @Operation(
         summary = "Obtenir les itinéraires les moins chers",
-        description = "Récupère les 5 itinéraires les moins chers disponibles"
+        description = "Récupère les itinéraires les moins chers disponibles (5 par défaut, selon la profondeur du classement)"
     )
-    public ResponseEntity<List<Itinerary>> getCheapestItineraries() {
-        log.info("Récupération des itinéraires les moins chers");
+    public Mono<ResponseEntity<List<Itinerary>>> getCheapestItineraries() {
+        log.debug("Récupération des itinéraires les moins chers");
         
-        List<Itinerary> itineraries = itineraryService.getCheapestItineraries();
-        
-        return new ResponseEntity<>(itineraries, HttpStatus.OK);
+        return itineraryService.getCheapestItineraries()
+                .map(itineraries -> new ResponseEntity<>(itineraries, HttpStatus.OK));
     }
 
     @GetMapping("/budget/{maxBudget}")
     @Operation(
         summary = "Obtenir les itinéraires dans un budget",
-        description = "Récupère tous les itinéraires dont le prix total est inférieur ou égal au budget spécifié"
+        description = "Récupère une page des itinéraires dont le prix total est inférieur ou égal au budget spécifié, "
+                + "du moins cher au plus cher. Mêmes paramètres de pagination et de détail que les résultats d'une recherche.",
+        responses = {
+            @ApiResponse(responseCode = "200", description = "Itinéraires récupérés avec succès"),
+            @ApiResponse(responseCode = "400", description = "Curseur ou taille de page invalide")
+        }
     )
-    public ResponseEntity<List<Itinerary>> getItinerariesWithinBudget(
-            @Parameter(description = "Budget maximum") @PathVariable double maxBudget) {
+    public Mono<ResponseEntity<ItineraryPage>> getItinerariesWithinBudget(
+            @Parameter(description = "Budget maximum") @PathVariable double maxBudget,
+            @Parameter(description = "Curseur retourné par la page précédente") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Nombre d'itinéraires par page (20 par défaut, 100 au plus)") @RequestParam(required = false) Integer limit,
+            @Parameter(description = "Inclure segments, villes et conseils") @RequestParam(defaultValue = "false") boolean details) {
         log.info("Récupération des itinéraires avec un budget maximum de {}", maxBudget);
         
-        List<Itinerary> itineraries = itineraryService.getItinerariesWithinBudget(maxBudget);
-        
-        return new ResponseEntity<>(itineraries, HttpStatus.OK);
+        return itineraryService.getItinerariesWithinBudget(maxBudget, cursor, limit, details)
+                .map(page -> new ResponseEntity<>(page, HttpStatus.OK));
     }
 }
@@ -0,0 +1,11 @@
+package com.travelapi.multidestination.exception;
+
+/**
+ * Exception levée quand le nombre maximal de recherches en cours est atteint ;
+ * la recherche refusée n'est pas enregistrée
+ */
+public class SearchCapacityExceededException extends RuntimeException {
+    public SearchCapacityExceededException(String message) {
+        super(message);
+    }
+}
@@ -1,10 +1,13 @@
 package com.travelapi.multidestination.model;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.LocalDate;
@@ -12,13 +15,21 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 /**
- * Représente un itinéraire complet multi-destinations
+ * Représente un itinéraire complet multi-destinations.
+ * Les index servent les parcours paginés par prix : résultats d'une recherche,
+ * et itinéraires sous un budget (le _id départage les prix égaux).
+ * Les champs absents d'une projection résumée ne sont pas sérialisés.
  */
 @Data
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
 @Document(collection = "itineraries")
+@CompoundIndexes({
+    @CompoundIndex(name = "search_price_id_idx", def = "{'searchId': 1, 'totalPrice': 1, '_id': 1}"),
+    @CompoundIndex(name = "price_id_idx", def = "{'totalPrice': 1, '_id': 1}")
+})
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public class Itinerary {
     
     @Id
@@ -34,4 +34,11 @@ public class ItinerarySearch {
     private List<String> interestPreferences;
     private List<String> excludedDestinations;
     private LocalDate createdAt;
+
+    private SearchStatus status;
+    private int progress; // Nombre de candidats évalués
+    private int resultCount;
+    private String errorMessage;
+    // Recherche équivalente dont les itinéraires sont réutilisés ; null si la recherche a généré les siens
+    private String resultSourceSearchId;
 }
@@ -0,0 +1,12 @@
+package com.travelapi.multidestination.model;
+
+/**
+ * État d'avancement d'une recherche d'itinéraires
+ */
+public enum SearchStatus {
+    PENDING,
+    RUNNING,
+    DONE,
+    FAILED,
+    CANCELLED
+}
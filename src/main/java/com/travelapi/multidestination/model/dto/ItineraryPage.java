@@ -0,0 +1,23 @@
+package com.travelapi.multidestination.model.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.travelapi.multidestination.model.Itinerary;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Page d'itinéraires triés par prix croissant.
+ * nextCursor est à repasser tel quel pour obtenir la page suivante ; absent sur la dernière page.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ItineraryPage {
+
+    private List<Itinerary> items;
+    private String nextCursor;
+}
@@ -0,0 +1,56 @@
+package com.travelapi.multidestination.model.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.travelapi.multidestination.model.Itinerary;
+import com.travelapi.multidestination.model.SearchStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Événement du flux de résultats d'une recherche.
+ * Un événement ITINERARY est émis pour chaque itinéraire entrant dans le classement ;
+ * le flux se termine par un unique événement COMPLETE portant le classement final.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class SearchStreamEvent {
+
+    public enum Type {
+        ITINERARY,
+        COMPLETE
+    }
+
+    private Type type;
+    private String searchId;
+    private Itinerary itinerary;
+
+    // Renseignés sur l'événement COMPLETE uniquement
+    private SearchStatus status;
+    private Integer resultCount;
+    private List<String> rankedItineraryIds;
+
+    public static SearchStreamEvent itinerary(String searchId, Itinerary itinerary) {
+        return SearchStreamEvent.builder()
+                .type(Type.ITINERARY)
+                .searchId(searchId)
+                .itinerary(itinerary)
+                .build();
+    }
+
+    public static SearchStreamEvent complete(String searchId, SearchStatus status, List<String> rankedItineraryIds) {
+        return SearchStreamEvent.builder()
+                .type(Type.COMPLETE)
+                .searchId(searchId)
+                .status(status)
+                .resultCount(rankedItineraryIds.size())
+                .rankedItineraryIds(rankedItineraryIds)
+                .build();
+    }
+}
@@ -0,0 +1,40 @@
+package com.travelapi.multidestination.repository;
+
+import lombok.Value;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Position dans un parcours d'itinéraires trié par (prix total, _id).
+ * La page suivante commence strictement après cette position, ce qui évite de
+ * parcourir et d'écarter les documents des pages précédentes (pagination par clé).
+ * Le curseur est transmis au client sous une forme opaque.
+ */
+@Value
+public class ItineraryCursor {
+
+    private static final char SEPARATOR = '|';
+
+    double totalPrice;
+    String id;
+
+    public String encode() {
+        String position = totalPrice + String.valueOf(SEPARATOR) + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @throws IllegalArgumentException si le curseur n'a pas été produit par {@link #encode()}
+     */
+    public static ItineraryCursor decode(String cursor) {
+        try {
+            String position = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = position.indexOf(SEPARATOR);
+
+            return new ItineraryCursor(Double.parseDouble(position.substring(0, separator)), position.substring(separator + 1));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Curseur de pagination invalide: " + cursor, e);
+        }
+    }
+}
@@ -1,17 +1,12 @@
 package com.travelapi.multidestination.repository;
 
 import com.travelapi.multidestination.model.Itinerary;
-import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
 import org.springframework.stereotype.Repository;
-
-import java.util.List;
+import reactor.core.publisher.Flux;
 
 @Repository
-public interface ItineraryRepository extends MongoRepository<Itinerary, String> {
-    
-    List<Itinerary> findBySearchId(String searchId);
-    
-    List<Itinerary> findByTotalPriceLessThanEqual(double maxPrice);
+public interface ItineraryRepository extends ReactiveMongoRepository<Itinerary, String>, ItineraryRepositoryCustom {
     
-    List<Itinerary> findTop5ByOrderByTotalPriceAsc();
+    Flux<Itinerary> findBySearchId(String searchId);
 }
@@ -0,0 +1,28 @@
+package com.travelapi.multidestination.repository;
+
+import com.travelapi.multidestination.model.Itinerary;
+import reactor.core.publisher.Flux;
+
+/**
+ * Requêtes paginées par clé sur les itinéraires, triées par prix total puis _id
+ */
+public interface ItineraryRepositoryCustom {
+
+    /**
+     * Itinéraires d'une recherche situés après le curseur (null pour la première page)
+     *
+     * @param withDetails inclure les segments, villes et conseils ; sinon seul le résumé est lu
+     */
+    Flux<Itinerary> findPageBySearchId(String searchId, ItineraryCursor after, int limit, boolean withDetails);
+
+    /**
+     * Itinéraires d'une recherche dont le prix total ne dépasse pas le budget, situés après le curseur
+     */
+    Flux<Itinerary> findPageBySearchIdWithinBudget(String searchId, double maxPrice, ItineraryCursor after,
+                                                   int limit, boolean withDetails);
+
+    /**
+     * Itinéraires dont le prix total ne dépasse pas le budget, situés après le curseur
+     */
+    Flux<Itinerary> findPageWithinBudget(double maxPrice, ItineraryCursor after, int limit, boolean withDetails);
+}
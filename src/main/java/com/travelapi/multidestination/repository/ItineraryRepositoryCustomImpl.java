@@ -0,0 +1,62 @@
+package com.travelapi.multidestination.repository;
+
+import com.travelapi.multidestination.model.Itinerary;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import reactor.core.publisher.Flux;
+
+/**
+ * Implémentation des requêtes paginées par clé.
+ * Chaque page est une plage d'index (searchId, totalPrice) ou (totalPrice, _id) bornée par
+ * le curseur et la limite : son coût ne dépend pas du nombre de pages déjà parcourues.
+ */
+@RequiredArgsConstructor
+public class ItineraryRepositoryCustomImpl implements ItineraryRepositoryCustom {
+
+    // Champs imbriqués volumineux, lus seulement sur demande
+    private static final String[] DETAIL_FIELDS = {"legs", "cities", "optimizationTips"};
+
+    private final ReactiveMongoTemplate mongoTemplate;
+
+    @Override
+    public Flux<Itinerary> findPageBySearchId(String searchId, ItineraryCursor after, int limit, boolean withDetails) {
+        return findPage(Criteria.where("searchId").is(searchId), after, limit, withDetails);
+    }
+
+    @Override
+    public Flux<Itinerary> findPageBySearchIdWithinBudget(String searchId, double maxPrice, ItineraryCursor after,
+                                                          int limit, boolean withDetails) {
+        return findPage(Criteria.where("searchId").is(searchId).and("totalPrice").lte(maxPrice), after, limit, withDetails);
+    }
+
+    @Override
+    public Flux<Itinerary> findPageWithinBudget(double maxPrice, ItineraryCursor after, int limit, boolean withDetails) {
+        return findPage(Criteria.where("totalPrice").lte(maxPrice), after, limit, withDetails);
+    }
+
+    private Flux<Itinerary> findPage(Criteria filter, ItineraryCursor after, int limit, boolean withDetails) {
+        Criteria criteria = filter;
+
+        if (after != null) {
+            // (totalPrice, _id) > (prix, id) dans l'ordre lexicographique
+            criteria = new Criteria().andOperator(filter, new Criteria().orOperator(
+                    Criteria.where("totalPrice").gt(after.getTotalPrice()),
+                    new Criteria().andOperator(
+                            Criteria.where("totalPrice").is(after.getTotalPrice()),
+                            Criteria.where("_id").gt(after.getId()))));
+        }
+
+        Query query = Query.query(criteria)
+                .with(Sort.by(Sort.Order.asc("totalPrice"), Sort.Order.asc("_id")))
+                .limit(limit);
+
+        if (!withDetails) {
+            query.fields().exclude(DETAIL_FIELDS);
+        }
+
+        return mongoTemplate.find(query, Itinerary.class);
+    }
+}
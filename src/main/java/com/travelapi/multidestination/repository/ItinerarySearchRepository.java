@@ -1,18 +1,18 @@
 package com.travelapi.multidestination.repository;
 
 import com.travelapi.multidestination.model.ItinerarySearch;
-import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
 import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
 
 import java.time.LocalDate;
-import java.util.List;
 
 @Repository
-public interface ItinerarySearchRepository extends MongoRepository<ItinerarySearch, String> {
+public interface ItinerarySearchRepository extends ReactiveMongoRepository<ItinerarySearch, String> {
     
-    List<ItinerarySearch> findByOrigin(String origin);
+    Flux<ItinerarySearch> findByOrigin(String origin);
     
-    List<ItinerarySearch> findByDepartureDateBetween(LocalDate start, LocalDate end);
+    Flux<ItinerarySearch> findByDepartureDateBetween(LocalDate start, LocalDate end);
     
-    List<ItinerarySearch> findByBudgetLessThanEqual(double budget);
+    Flux<ItinerarySearch> findByBudgetLessThanEqual(double budget);
 }
@@ -0,0 +1,67 @@
+package com.travelapi.multidestination.service;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Associe chaque code IATA à un identifiant entier dense et stable.
+ * Le cœur de la génération manipule ces identifiants plutôt que des chaînes ;
+ * les codes ne sont retrouvés qu'au moment de construire les itinéraires.
+ */
+@Component
+public class AirportRegistry {
+
+    private final Map<String, Integer> idsByCode = new ConcurrentHashMap<>();
+    private volatile String[] codes = new String[64];
+    private volatile int size;
+
+    /**
+     * Retourne l'identifiant du code, en l'enregistrant s'il est inconnu
+     */
+    public int idOf(String code) {
+        Integer id = idsByCode.get(code);
+        return id != null ? id : register(code);
+    }
+
+    /**
+     * Retourne l'identifiant du code s'il est déjà enregistré, -1 sinon
+     */
+    public int find(String code) {
+        Integer id = idsByCode.get(code);
+        return id != null ? id : -1;
+    }
+
+    public String codeOf(int id) {
+        return codes[id];
+    }
+
+    /**
+     * Nombre de codes enregistrés ; les identifiants sont compris entre 0 et size() - 1
+     */
+    public int size() {
+        return size;
+    }
+
+    private synchronized int register(String code) {
+        Integer existing = idsByCode.get(code);
+        if (existing != null) {
+            return existing;
+        }
+
+        int id = size;
+        String[] table = codes;
+        if (id == table.length) {
+            table = Arrays.copyOf(table, table.length * 2);
+        }
+        table[id] = code;
+
+        // Publier le tableau avant l'identifiant pour qu'un lecteur trouve toujours le code
+        codes = table;
+        size = id + 1;
+        idsByCode.put(code, id);
+        return id;
+    }
+}
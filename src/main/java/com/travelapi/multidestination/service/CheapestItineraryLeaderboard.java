@@ -0,0 +1,225 @@
+package com.travelapi.multidestination.service;
+
+import com.travelapi.multidestination.model.Itinerary;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.mapping.event.AbstractMongoEventListener;
+import org.springframework.data.mongodb.core.mapping.event.AfterDeleteEvent;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Classement en mémoire des itinéraires les moins chers, toutes recherches confondues.
+ * Chargé depuis la base au démarrage, il est complété par les itinéraires dès leur écriture
+ * et se lit sans accès à la base : les lecteurs reçoivent une liste immuable publiée à chaque changement.
+ * Les suppressions retirent l'itinéraire du classement puis le rechargent pour combler la place ;
+ * un rechargement périodique rattrape ce qui échappe aux événements (expiration par index TTL,
+ * écritures d'une autre instance).
+ */
+@Component
+@Slf4j
+public class CheapestItineraryLeaderboard extends AbstractMongoEventListener<Itinerary> {
+
+    // Ordre de l'index (totalPrice, _id) : les prix égaux sont départagés de façon stable
+    private static final Comparator<Entry> ORDER = Comparator.<Entry>comparingDouble(e -> e.itinerary.getTotalPrice())
+            .thenComparing(e -> e.itinerary.getId());
+
+    private final ReactiveMongoTemplate mongoTemplate;
+    private final int depth;
+    private final Duration refreshInterval;
+
+    private final Object lock = new Object();
+    private final List<Entry> entries = new ArrayList<>();
+    // Numéro d'ordre des itinéraires proposés, pour conserver ceux arrivés pendant un rechargement
+    private long offerSequence;
+
+    private volatile List<Itinerary> snapshot = Collections.emptyList();
+    private volatile boolean loaded;
+
+    private Disposable refreshTimer;
+
+    public CheapestItineraryLeaderboard(ReactiveMongoTemplate mongoTemplate,
+                                        @Value("${itinerary.leaderboard.depth:5}") int depth,
+                                        @Value("${itinerary.leaderboard.refresh-interval-seconds:60}") long refreshIntervalSeconds) {
+        if (depth <= 0) {
+            throw new IllegalArgumentException("La profondeur du classement doit être positive");
+        }
+
+        this.mongoTemplate = mongoTemplate;
+        this.depth = depth;
+        this.refreshInterval = Duration.ofSeconds(refreshIntervalSeconds);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        refreshTimer = Flux.interval(Duration.ZERO, refreshInterval)
+                .concatMap(tick -> refresh().onErrorResume(e -> {
+                    log.warn("Rechargement du classement des itinéraires les moins chers impossible: {}", e.getMessage());
+                    return Mono.empty();
+                }))
+                .subscribe();
+    }
+
+    /**
+     * Itinéraires les moins chers, du moins cher au plus cher.
+     * Tant que le classement n'a jamais été chargé, il est lu en base.
+     */
+    public Mono<List<Itinerary>> top() {
+        return loaded ? Mono.just(snapshot) : refresh();
+    }
+
+    /**
+     * Propose des itinéraires qui viennent d'être écrits en base
+     */
+    public void offer(Collection<Itinerary> itineraries) {
+        synchronized (lock) {
+            boolean changed = false;
+
+            for (Itinerary itinerary : itineraries) {
+                Entry entry = new Entry(itinerary, ++offerSequence);
+
+                if ((entries.size() < depth || ORDER.compare(entry, entries.get(entries.size() - 1)) < 0)
+                        && insert(entry)) {
+                    changed = true;
+                }
+            }
+
+            if (changed) {
+                publish();
+            }
+        }
+    }
+
+    /**
+     * Recharge le classement depuis la base, en conservant les itinéraires proposés entre-temps
+     */
+    public Mono<List<Itinerary>> refresh() {
+        return Mono.defer(() -> {
+            long startSequence;
+            synchronized (lock) {
+                startSequence = offerSequence;
+            }
+
+            Query query = new Query()
+                    .with(Sort.by(Sort.Order.asc("totalPrice"), Sort.Order.asc("_id")))
+                    .limit(depth);
+
+            return mongoTemplate.find(query, Itinerary.class)
+                    .collectList()
+                    .map(itineraries -> {
+                        synchronized (lock) {
+                            List<Entry> offeredMeanwhile = new ArrayList<>();
+                            for (Entry entry : entries) {
+                                if (entry.sequence > startSequence) {
+                                    offeredMeanwhile.add(entry);
+                                }
+                            }
+
+                            entries.clear();
+                            for (Itinerary itinerary : itineraries) {
+                                insert(new Entry(itinerary, startSequence));
+                            }
+                            for (Entry entry : offeredMeanwhile) {
+                                insert(entry);
+                            }
+
+                            publish();
+                            loaded = true;
+                            return snapshot;
+                        }
+                    });
+        });
+    }
+
+    /**
+     * Retire du classement un itinéraire supprimé par identifiant, puis recharge le classement
+     * pour combler sa place (ou appliquer une suppression par critère)
+     */
+    @Override
+    public void onAfterDelete(AfterDeleteEvent<Itinerary> event) {
+        Object id = event.getSource().get("_id");
+
+        if (id instanceof String) {
+            synchronized (lock) {
+                if (entries.removeIf(entry -> id.equals(entry.itinerary.getId()))) {
+                    publish();
+                }
+            }
+        }
+
+        refresh().subscribe(
+                itineraries -> log.debug("Classement des itinéraires les moins chers rechargé après suppression"),
+                error -> log.warn("Rechargement du classement après suppression impossible: {}", error.getMessage()));
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (refreshTimer != null) {
+            refreshTimer.dispose();
+        }
+    }
+
+    /**
+     * Insère à sa place dans la liste triée, en évinçant le moins bon au-delà de la profondeur.
+     * Un itinéraire déjà classé (proposé deux fois, ou relu en base après avoir été proposé) est ignoré.
+     */
+    private boolean insert(Entry entry) {
+        if (contains(entry.itinerary.getId())) {
+            return false;
+        }
+
+        int index = Collections.binarySearch(entries, entry, ORDER);
+        entries.add(index < 0 ? -index - 1 : index, entry);
+
+        if (entries.size() > depth) {
+            entries.remove(entries.size() - 1);
+        }
+        return true;
+    }
+
+    private boolean contains(String id) {
+        for (Entry entry : entries) {
+            if (entry.itinerary.getId().equals(id)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void publish() {
+        List<Itinerary> itineraries = new ArrayList<>(entries.size());
+        for (Entry entry : entries) {
+            itineraries.add(entry.itinerary);
+        }
+        snapshot = Collections.unmodifiableList(itineraries);
+    }
+
+    private static final class Entry {
+        private final Itinerary itinerary;
+        private final long sequence;
+
+        private Entry(Itinerary itinerary, long sequence) {
+            this.itinerary = itinerary;
+            this.sequence = sequence;
+        }
+    }
+}
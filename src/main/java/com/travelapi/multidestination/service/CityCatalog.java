@@ -0,0 +1,174 @@
+package com.travelapi.multidestination.service;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Données de référence des villes (nom, pays, continent, centres d'intérêt, points d'intérêt),
+ * chargées une seule fois au démarrage depuis un fichier du classpath et immuables ensuite.
+ * Chaque ville est indexée par son identifiant dans {@link AirportRegistry} : la recherche par
+ * identifiant est un accès de tableau, celle par code passe par le registre.
+ * Les chaînes répétées (pays, continents, centres d'intérêt) ne sont conservées qu'une fois et
+ * les listes de points d'intérêt sont partagées par tous les itinéraires qui visitent la ville.
+ */
+@Component
+@Slf4j
+public class CityCatalog {
+
+    private static final String FIELD_SEPARATOR = "\t";
+    private static final String LIST_SEPARATOR = ";";
+    private static final int FIELD_COUNT = 6;
+
+    private final AirportRegistry airportRegistry;
+    private final List<CityDetails> cities;
+    private final CityDetails[] citiesById;
+
+    public CityCatalog(AirportRegistry airportRegistry,
+                       @Value("${catalog.cities.location:classpath:data/cities.tsv}") Resource location) {
+        this.airportRegistry = airportRegistry;
+
+        List<CityDetails> loaded = load(location);
+        CityDetails[] byId = new CityDetails[airportRegistry.size()];
+        for (CityDetails city : loaded) {
+            byId[city.getId()] = city;
+        }
+
+        this.cities = Collections.unmodifiableList(loaded);
+        this.citiesById = byId;
+        log.info("Catalogue des villes chargé: {} villes depuis {}", loaded.size(), location.getDescription());
+    }
+
+    /**
+     * Ville d'identifiant donné (voir {@link AirportRegistry}), null si elle n'est pas au catalogue
+     */
+    public CityDetails get(int airportId) {
+        return airportId >= 0 && airportId < citiesById.length ? citiesById[airportId] : null;
+    }
+
+    /**
+     * Ville de code donné, null si elle n'est pas au catalogue
+     */
+    public CityDetails find(String code) {
+        return get(airportRegistry.find(code));
+    }
+
+    /**
+     * Villes du catalogue, dans l'ordre du fichier
+     */
+    public List<CityDetails> cities() {
+        return cities;
+    }
+
+    public int size() {
+        return cities.size();
+    }
+
+    private List<CityDetails> load(Resource location) {
+        Map<String, String> pool = new HashMap<>();
+        List<CityDetails> loaded = new ArrayList<>();
+        Set<String> codes = new HashSet<>();
+
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(location.getInputStream(), StandardCharsets.UTF_8))) {
+            int lineNumber = 0;
+            String line;
+
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.trim().isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+
+                String[] fields = line.split(FIELD_SEPARATOR, -1);
+                if (fields.length != FIELD_COUNT || fields[0].trim().isEmpty()) {
+                    throw new IllegalStateException("Ligne " + lineNumber + " invalide dans "
+                            + location.getDescription() + ": " + FIELD_COUNT + " champs attendus");
+                }
+
+                String code = fields[0].trim();
+                if (!codes.add(code)) {
+                    throw new IllegalStateException("Ville " + code + " en double dans " + location.getDescription());
+                }
+
+                loaded.add(new CityDetails(
+                        airportRegistry.idOf(code),
+                        code,
+                        fields[1].trim(),
+                        shared(fields[2].trim(), pool),
+                        shared(fields[3].trim(), pool),
+                        listOf(fields[4], pool),
+                        listOf(fields[5], null)));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Impossible de lire le catalogue des villes " + location.getDescription(), e);
+        }
+
+        return loaded;
+    }
+
+    /**
+     * Liste immuable des éléments non vides du champ ; avec un réservoir, les éléments y sont partagés
+     */
+    private static List<String> listOf(String field, Map<String, String> pool) {
+        if (field.trim().isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        String[] items = field.split(LIST_SEPARATOR);
+        List<String> values = new ArrayList<>(items.length);
+        for (String item : items) {
+            String value = item.trim();
+            if (!value.isEmpty()) {
+                values.add(pool != null ? shared(value, pool) : value);
+            }
+        }
+        return Collections.unmodifiableList(Arrays.asList(values.toArray(new String[0])));
+    }
+
+    private static String shared(String value, Map<String, String> pool) {
+        String existing = pool.putIfAbsent(value, value);
+        return existing != null ? existing : value;
+    }
+
+    /**
+     * Données de référence d'une ville
+     */
+    @Getter
+    public static final class CityDetails {
+        private final int id;
+        private final String code;
+        private final String name;
+        private final String country;
+        private final String continent;
+        private final List<String> interests;
+        private final List<String> highlights;
+
+        private CityDetails(int id, String code, String name, String country, String continent,
+                            List<String> interests, List<String> highlights) {
+            this.id = id;
+            this.code = code;
+            this.name = name;
+            this.country = country;
+            this.continent = continent;
+            this.interests = interests;
+            this.highlights = highlights;
+        }
+    }
+}
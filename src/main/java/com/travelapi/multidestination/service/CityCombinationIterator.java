@@ -0,0 +1,115 @@
+package com.travelapi.multidestination.service;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Itérateur paresseux sur les combinaisons de villes.
+ * Les combinaisons sont produites une à une, dans l'ordre lexicographique des indices,
+ * à partir d'un tableau d'indices : aucune liste intermédiaire n'est construite.
+ */
+public class CityCombinationIterator implements Iterator<List<String>> {
+
+    private final String[] destinations;
+    private final int[] indices;
+    private boolean hasNext;
+
+    /**
+     * @param destinations         destinations candidates
+     * @param numberOfCities       taille des combinaisons à produire
+     * @param excludedDestinations destinations à écarter (peut être null)
+     */
+    public CityCombinationIterator(List<String> destinations, int numberOfCities, List<String> excludedDestinations) {
+        // Filtrer les exclusions une seule fois, avant toute énumération
+        Set<String> excluded = excludedDestinations != null
+                ? new HashSet<>(excludedDestinations)
+                : Collections.emptySet();
+
+        this.destinations = destinations.stream()
+                .filter(d -> !excluded.contains(d))
+                .toArray(String[]::new);
+
+        this.indices = new int[Math.max(numberOfCities, 0)];
+        for (int i = 0; i < indices.length; i++) {
+            indices[i] = i;
+        }
+
+        this.hasNext = numberOfCities > 0 && numberOfCities <= this.destinations.length;
+    }
+
+    @Override
+    public boolean hasNext() {
+        return hasNext;
+    }
+
+    @Override
+    public List<String> next() {
+        if (!hasNext) {
+            throw new NoSuchElementException();
+        }
+
+        String[] combination = new String[indices.length];
+        for (int i = 0; i < indices.length; i++) {
+            combination[i] = destinations[indices[i]];
+        }
+
+        advance();
+        return Collections.unmodifiableList(Arrays.asList(combination));
+    }
+
+    /**
+     * Retourne la prochaine combinaison sous forme d'indices dans le pool de destinations
+     */
+    public int[] nextIndices() {
+        if (!hasNext) {
+            throw new NoSuchElementException();
+        }
+
+        int[] combination = indices.clone();
+        advance();
+        return combination;
+    }
+
+    /**
+     * Nombre de destinations retenues après filtrage des exclusions
+     */
+    public int getPoolSize() {
+        return destinations.length;
+    }
+
+    /**
+     * Destination du pool à l'indice donné
+     */
+    public String getDestination(int index) {
+        return destinations[index];
+    }
+
+    /**
+     * Passe à la combinaison suivante : incrémente l'indice le plus à droite
+     * qui peut encore l'être, puis réaligne les indices suivants
+     */
+    private void advance() {
+        int k = indices.length;
+        int n = destinations.length;
+
+        int i = k - 1;
+        while (i >= 0 && indices[i] == n - k + i) {
+            i--;
+        }
+
+        if (i < 0) {
+            hasNext = false;
+            return;
+        }
+
+        indices[i]++;
+        for (int j = i + 1; j < k; j++) {
+            indices[j] = indices[j - 1] + 1;
+        }
+    }
+}
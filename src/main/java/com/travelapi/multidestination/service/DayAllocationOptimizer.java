@@ -0,0 +1,117 @@
+package com.travelapi.multidestination.service;
+
+import java.util.Arrays;
+
+/**
+ * Répartit les jours du voyage entre les villes d'un ordre de visite donné.
+ * Toutes les compositions de la durée totale respectant [min, max] jours par ville sont
+ * explorées par programmation dynamique sur (rang du segment, jour de départ) :
+ * best[p][t] est le coût minimal des segments 0..p lorsque le segment p part au jour t.
+ * Le coût est en O(k × durée × (max - min + 1)), quel que soit le nombre de compositions.
+ */
+public final class DayAllocationOptimizer {
+
+    private DayAllocationOptimizer() {
+    }
+
+    /**
+     * Tarif du segment de rang donné (0 = aller depuis l'origine, k = retour) partant au jour donné,
+     * ou {@link Double#POSITIVE_INFINITY} s'il n'est pas disponible
+     */
+    @FunctionalInterface
+    public interface LegFares {
+        double fare(int rank, int day);
+    }
+
+    /**
+     * @param dailyCosts coût journalier de séjour de la ville visitée à chaque position
+     * @return le nombre de jours passés dans chaque ville, ou null si aucune répartition n'est possible
+     */
+    public static int[] optimize(int numberOfCities, int totalDays, int minDays, int maxDays,
+                                 LegFares legFares, double[] dailyCosts) {
+        int k = numberOfCities;
+        int width = totalDays + 1;
+
+        if (k == 0 || k * minDays > totalDays || k * maxDays < totalDays) {
+            return null;
+        }
+
+        double[] best = new double[(k + 1) * width];
+        int[] stayChoice = new int[(k + 1) * width];
+        Arrays.fill(best, Double.POSITIVE_INFINITY);
+
+        // Le premier segment part toujours le jour du départ
+        best[0] = legFares.fare(0, 0);
+
+        for (int rank = 1; rank <= k; rank++) {
+            // Bornes du jour de départ du segment : chaque ville déjà visitée ou restante
+            // doit pouvoir recevoir entre min et max jours
+            int earliest = Math.max(rank * minDays, totalDays - (k - rank) * maxDays);
+            int latest = Math.min(rank * maxDays, totalDays - (k - rank) * minDays);
+            double dailyCost = dailyCosts[rank - 1];
+
+            for (int day = earliest; day <= latest; day++) {
+                double legFare = legFares.fare(rank, day);
+                if (legFare == Double.POSITIVE_INFINITY) {
+                    continue;
+                }
+
+                for (int stay = minDays; stay <= maxDays && stay <= day; stay++) {
+                    double previous = best[(rank - 1) * width + day - stay];
+                    if (previous == Double.POSITIVE_INFINITY) {
+                        continue;
+                    }
+
+                    double candidate = previous + stay * dailyCost + legFare;
+                    int cell = rank * width + day;
+
+                    if (candidate < best[cell]) {
+                        best[cell] = candidate;
+                        stayChoice[cell] = stay;
+                    }
+                }
+            }
+        }
+
+        if (best[k * width + totalDays] == Double.POSITIVE_INFINITY) {
+            return null;
+        }
+
+        // Reconstituer les séjours depuis le retour, qui part le dernier jour
+        int[] stays = new int[k];
+        int day = totalDays;
+
+        for (int rank = k; rank >= 1; rank--) {
+            int stay = stayChoice[rank * width + day];
+            stays[rank - 1] = stay;
+            day -= stay;
+        }
+
+        return stays;
+    }
+
+    /**
+     * Répartition équilibrée : le minimum partout, puis les jours restants un par un
+     * dans l'ordre des villes, sans dépasser le maximum
+     */
+    public static int[] balanced(int numberOfCities, int totalDays, int minDays, int maxDays) {
+        if (numberOfCities == 0 || numberOfCities * minDays > totalDays || numberOfCities * maxDays < totalDays) {
+            return null;
+        }
+
+        int[] stays = new int[numberOfCities];
+        Arrays.fill(stays, minDays);
+        int remaining = totalDays - numberOfCities * minDays;
+
+        while (remaining > 0) {
+            for (int i = 0; i < numberOfCities && remaining > 0; i++) {
+                if (stays[i] < maxDays) {
+                    stays[i]++;
+                    remaining--;
+                }
+            }
+        }
+
+        return stays;
+    }
+}
@@ -0,0 +1,111 @@
+package com.travelapi.multidestination.service;
+
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Catalogue des destinations proposées : les villes de {@link CityCatalog}.
+ * Chaque destination est repérée par son identifiant dans {@link AirportRegistry}, qui sert
+ * d'indice de bit : un masque précalculé par continent et par centre d'intérêt permet de filtrer
+ * les préférences d'une recherche par quelques OU / ET bit à bit, sans ensemble intermédiaire.
+ * Comme pour {@link SearchFingerprint}, continents et centres d'intérêt ne tiennent pas compte de la casse.
+ */
+@Component
+public class DestinationCatalog {
+
+    private final AirportRegistry airportRegistry;
+
+    private final BitSet allDestinations = new BitSet();
+    private final Map<String, BitSet> continentMasks = new HashMap<>();
+    private final Map<String, BitSet> interestMasks = new HashMap<>();
+
+    public DestinationCatalog(AirportRegistry airportRegistry, CityCatalog cityCatalog) {
+        this.airportRegistry = airportRegistry;
+
+        for (CityCatalog.CityDetails city : cityCatalog.cities()) {
+            allDestinations.set(city.getId());
+            maskFor(city.getContinent(), continentMasks).set(city.getId());
+            for (String interest : city.getInterests()) {
+                maskFor(interest, interestMasks).set(city.getId());
+            }
+        }
+    }
+
+    /**
+     * Destinations correspondant aux préférences d'une recherche :
+     * union des continents demandés (tous si aucun), intersectée avec l'union des centres d'intérêt
+     * demandés s'il y en a, privée de l'origine et des destinations exclues.
+     * Les destinations sont retournées dans l'ordre de leurs identifiants.
+     */
+    public List<String> findDestinations(Collection<String> continents, Collection<String> interests,
+                                         String origin, Collection<String> excluded) {
+        BitSet candidates;
+
+        if (continents != null && !continents.isEmpty()) {
+            candidates = unionOf(continents, continentMasks);
+        } else {
+            candidates = (BitSet) allDestinations.clone();
+        }
+
+        if (interests != null && !interests.isEmpty()) {
+            candidates.and(unionOf(interests, interestMasks));
+        }
+
+        if (origin != null) {
+            candidates.andNot(maskOf(List.of(origin)));
+        }
+
+        if (excluded != null && !excluded.isEmpty()) {
+            candidates.andNot(maskOf(excluded));
+        }
+
+        List<String> destinations = new ArrayList<>(candidates.cardinality());
+        for (int id = candidates.nextSetBit(0); id >= 0; id = candidates.nextSetBit(id + 1)) {
+            destinations.add(airportRegistry.codeOf(id));
+        }
+        return destinations;
+    }
+
+    /**
+     * Nombre de destinations du catalogue
+     */
+    public int size() {
+        return allDestinations.cardinality();
+    }
+
+    private static BitSet maskFor(String key, Map<String, BitSet> masks) {
+        return masks.computeIfAbsent(key.toLowerCase(Locale.ROOT), k -> new BitSet());
+    }
+
+    private BitSet unionOf(Collection<String> keys, Map<String, BitSet> masks) {
+        BitSet union = new BitSet();
+        for (String key : keys) {
+            BitSet mask = key != null ? masks.get(key.trim().toLowerCase(Locale.ROOT)) : null;
+            if (mask != null) {
+                union.or(mask);
+            }
+        }
+        return union;
+    }
+
+    /**
+     * Masque des codes donnés ; les codes inconnus sont ignorés plutôt qu'enregistrés
+     */
+    private BitSet maskOf(Collection<String> codes) {
+        BitSet mask = new BitSet();
+        for (String code : codes) {
+            int id = airportRegistry.find(code);
+            if (id >= 0) {
+                mask.set(id);
+            }
+        }
+        return mask;
+    }
+}
@@ -0,0 +1,87 @@
+package com.travelapi.multidestination.service;
+
+import com.travelapi.multidestination.model.FlightLeg;
+
+import java.util.Arrays;
+
+/**
+ * Tarifs préchargés pour un ensemble d'aéroports, stockés dans des tableaux plats.
+ * Chaque aéroport reçoit un indice local ; le tarif du segment from → to au jour d
+ * (décalage depuis la date de départ du voyage) est à l'indice (d * n + from) * n + to.
+ * Un segment non tarifé vaut {@link Double#POSITIVE_INFINITY}.
+ */
+public class FareMatrix {
+
+    private final int size;
+    private final int days;
+    private final int[] airportIds;
+    private final int[] localIndexById;
+    private final double[] fares;
+    private final FlightLeg[] legs;
+
+    /**
+     * @param airportIds   identifiants (registre) des aéroports couverts
+     * @param registrySize nombre d'identifiants connus du registre
+     * @param days         nombre de jours couverts, à partir du jour 0
+     */
+    public FareMatrix(int[] airportIds, int registrySize, int days) {
+        this.size = airportIds.length;
+        this.days = days;
+        this.airportIds = airportIds;
+        this.localIndexById = new int[registrySize];
+        Arrays.fill(localIndexById, -1);
+
+        for (int local = 0; local < airportIds.length; local++) {
+            localIndexById[airportIds[local]] = local;
+        }
+
+        this.fares = new double[days * size * size];
+        this.legs = new FlightLeg[fares.length];
+        Arrays.fill(fares, Double.POSITIVE_INFINITY);
+    }
+
+    public void put(int day, int fromId, int toId, FlightLeg leg) {
+        int index = index(day, localIndex(fromId), localIndex(toId));
+        if (index >= 0) {
+            fares[index] = leg.getPrice();
+            legs[index] = leg;
+        }
+    }
+
+    /**
+     * Indice local d'un aéroport, ou -1 s'il n'est pas couvert
+     */
+    public int localIndex(int airportId) {
+        return airportId < localIndexById.length ? localIndexById[airportId] : -1;
+    }
+
+    /**
+     * Identifiant (registre) de l'aéroport d'indice local donné
+     */
+    public int airportId(int localIndex) {
+        return airportIds[localIndex];
+    }
+
+    /**
+     * Tarif entre deux aéroports désignés par leurs indices locaux
+     */
+    public double fare(int day, int fromLocal, int toLocal) {
+        int index = index(day, fromLocal, toLocal);
+        return index >= 0 ? fares[index] : Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Segment entre deux aéroports désignés par leurs indices locaux, ou null s'il n'est pas tarifé
+     */
+    public FlightLeg leg(int day, int fromLocal, int toLocal) {
+        int index = index(day, fromLocal, toLocal);
+        return index >= 0 ? legs[index] : null;
+    }
+
+    private int index(int day, int fromLocal, int toLocal) {
+        if (day < 0 || day >= days || fromLocal < 0 || toLocal < 0) {
+            return -1;
+        }
+        return (day * size + fromLocal) * size + toLocal;
+    }
+}
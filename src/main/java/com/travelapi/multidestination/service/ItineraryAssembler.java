@@ -0,0 +1,134 @@
+package com.travelapi.multidestination.service;
+
+import com.travelapi.multidestination.model.BudgetBreakdown;
+import com.travelapi.multidestination.model.City;
+import com.travelapi.multidestination.model.FlightLeg;
+import com.travelapi.multidestination.model.Itinerary;
+import com.travelapi.multidestination.model.ItinerarySearch;
+import com.travelapi.multidestination.model.WeatherForecast;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Construit l'itinéraire présenté à l'utilisateur à partir d'un candidat tarifé :
+ * segments, villes (détails et météo), répartition du budget et conseils d'optimisation.
+ * N'est appelé que pour les candidats retenus par le classement.
+ */
+@Component
+@RequiredArgsConstructor
+public class ItineraryAssembler {
+
+    static final double ACCOMMODATION_COST_PER_DAY = 50.0;
+    static final double FOOD_COST_PER_DAY = 20.0;
+
+    private final AirportRegistry airportRegistry;
+    private final CityCatalog cityCatalog;
+
+    /**
+     * Crée un itinéraire complet avec vols, villes et détails de budget, sans appel externe
+     */
+    public Itinerary assemble(PricedRoute route, ItinerarySearch search) {
+        int[] airportIds = route.getAirportIds();
+        int[] stays = route.getStays();
+        int[] legDays = route.getLegDays();
+        LocalDate departureDate = search.getDepartureDate();
+
+        // Créer les objets City
+        List<City> cities = new ArrayList<>(airportIds.length);
+        for (int i = 0; i < airportIds.length; i++) {
+            cities.add(createCityObject(
+                    airportIds[i],
+                    stays[i] + " days",
+                    departureDate.plusDays(legDays[i]),
+                    departureDate.plusDays(legDays[i + 1])
+            ));
+        }
+
+        // Calculer les coûts estimés d'hébergement et de nourriture
+        double flightCost = route.getFlightCost();
+        double accommodationCost = route.getTotalStayDays() * ACCOMMODATION_COST_PER_DAY;
+        double foodCost = route.getTotalStayDays() * FOOD_COST_PER_DAY;
+
+        // Créer la répartition du budget
+        BudgetBreakdown budgetBreakdown = BudgetBreakdown.builder()
+                .flights(flightCost)
+                .estimatedAccommodation(accommodationCost)
+                .estimatedFood(foodCost)
+                .total(flightCost + accommodationCost + foodCost)
+                .remainingBudget(search.getBudget() - (flightCost + accommodationCost + foodCost))
+                .build();
+
+        List<FlightLeg> legs = Arrays.asList(route.getLegs());
+
+        return Itinerary.builder()
+                .id("itin-" + UUID.randomUUID())
+                .searchId(search.getId())
+                .totalPrice(budgetBreakdown.getTotal())
+                .totalDuration(route.getTotalStayDays() + " days")
+                .legs(legs)
+                .cities(cities)
+                .budgetBreakdown(budgetBreakdown)
+                .optimizationTips(generateOptimizationTips(legs, cities, budgetBreakdown))
+                .build();
+    }
+
+    /**
+     * Crée un objet City avec ses détails ; les points d'intérêt sont ceux du catalogue, partagés
+     */
+    private City createCityObject(int airportId, String stayDuration, LocalDate arrivalDate, LocalDate departureDate) {
+        CityCatalog.CityDetails details = cityCatalog.get(airportId);
+
+        // Simuler des prévisions météo
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        WeatherForecast weather = WeatherForecast.builder()
+                .averageTemp(20 + random.nextInt(16)) // Entre 20 et 35 degrés
+                .condition(random.nextBoolean() ? "Sunny" : "Partly Cloudy")
+                .build();
+
+        return City.builder()
+                .code(airportRegistry.codeOf(airportId))
+                .name(details != null ? details.getName() : "Unknown City")
+                .country(details != null ? details.getCountry() : "Unknown Country")
+                .stayDuration(stayDuration)
+                .arrivalDate(arrivalDate)
+                .departureDate(departureDate)
+                .highlights(details != null ? details.getHighlights() : Collections.<String>emptyList())
+                .weatherForecast(weather)
+                .build();
+    }
+
+    /**
+     * Génère des conseils d'optimisation pour l'itinéraire
+     */
+    private List<String> generateOptimizationTips(List<FlightLeg> legs, List<City> cities, BudgetBreakdown budget) {
+        List<String> tips = new ArrayList<>();
+
+        // Simuler quelques conseils d'optimisation
+        if (legs.size() > 2) {
+            tips.add("Booking accommodation in " + cities.get(0).getName() + " 1 week earlier could save ~€30");
+        }
+
+        if (budget.getTotal() > 700) {
+            tips.add("Flying on Tuesday instead of Thursday could reduce the return flight cost by ~€20");
+        }
+
+        if (budget.getEstimatedAccommodation() > 250) {
+            tips.add("Staying in hostels instead of hotels could save ~€50");
+        }
+
+        if (legs.size() >= 3) {
+            tips.add("Booking all flights together as a multi-city package could reduce total flight costs by ~€25");
+        }
+
+        Collections.shuffle(tips, ThreadLocalRandom.current());
+        return tips.subList(0, Math.min(2, tips.size()));
+    }
+}
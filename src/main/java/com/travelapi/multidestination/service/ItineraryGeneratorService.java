@@ -1,20 +1,28 @@
 package com.travelapi.multidestination.service;
 
 import com.travelapi.multidestination.model.*;
-import com.travelapi.multidestination.model.dto.ItinerarySearchRequest;
-import com.travelapi.multidestination.repository.ItineraryRepository;
+import com.travelapi.multidestination.model.dto.SearchStreamEvent;
 import com.travelapi.multidestination.service.external.AmadeusFlightService;
-//import com.travelapi.multidestination.service.external.CityDataService;
+import com.travelapi.multidestination.service.external.AmadeusRateLimiter;
+import com.travelapi.multidestination.service.external.LegKey;
 //import com.travelapi.multidestination.service.external.WeatherService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.scheduling.annotation.Async;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Scheduler;
+import reactor.util.function.Tuples;
 
 import java.time.LocalDate;
-import java.time.Period;
 import java.time.temporal.ChronoUnit;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 /**
@@ -25,468 +33,705 @@ import java.util.stream.Collectors;
 @Slf4j
 public class ItineraryGeneratorService {
 
-    private final ItineraryRepository itineraryRepository;
+    private final ItineraryWriteBehindBuffer itineraryWriteBehindBuffer;
+    private final SearchResultCache searchResultCache;
+    private final CheapestItineraryLeaderboard cheapestItineraryLeaderboard;
     private final AmadeusFlightService amadeusFlightService;
-    //private final CityDataService cityDataService;
+    private final SearchProgressTracker searchProgressTracker;
+    private final AirportRegistry airportRegistry;
+    private final DestinationCatalog destinationCatalog;
+    private final ItineraryAssembler itineraryAssembler;
+    private final SearchPipelineMetrics searchPipelineMetrics;
+
+    @Qualifier("itineraryEvaluationScheduler")
+    private final Scheduler itineraryEvaluationScheduler;
     //private final WeatherService weatherService;
 
     private static final int MAX_ITINERARIES_TO_GENERATE = 12;
-    private static final double ACCOMMODATION_COST_PER_DAY = 50.0;
-    private static final double FOOD_COST_PER_DAY = 20.0;
+    private static final int MAX_ROUTE_PLANNING_ROUNDS = 3;
+    private static final int PREFETCHED_WINDOWS = 2;
+    private static final double COST_EPSILON = 1e-6;
+    private static final double DAILY_STAY_COST =
+            ItineraryAssembler.ACCOMMODATION_COST_PER_DAY + ItineraryAssembler.FOOD_COST_PER_DAY;
 
-    /**
-     * Génère des itinéraires basés sur les critères de recherche
-     */
-    @Async
-    public List<Itinerary> generateItineraries(ItinerarySearch search) {
-        log.info("Génération d'itinéraires pour la recherche {}", search.getId());
-
-        try {
-            // 1. Calculer la durée totale du voyage
-            long totalDays = ChronoUnit.DAYS.between(search.getDepartureDate(), search.getReturnDate());
-            log.info("Durée totale du voyage: {} jours", totalDays);
-
-            if (totalDays < search.getNumberOfCities() * search.getMinDaysPerCity()) {
-                log.warn("Durée totale insuffisante pour visiter le nombre de villes demandé");
-                return Collections.emptyList();
-            }
-
-            // 2. Trouver des destinations potentielles en fonction des préférences
-            List<String> potentialDestinations = findPotentialDestinations(search);
-            log.info("Destinations potentielles: {}", potentialDestinations);
+    @Value("${itinerary.generation.concurrent:true}")
+    private boolean concurrentEvaluationEnabled;
 
-            if (potentialDestinations.size() < search.getNumberOfCities()) {
-                log.warn("Pas assez de destinations potentielles trouvées");
-                return Collections.emptyList();
-            }
-
-            // 3. Générer toutes les combinaisons possibles de villes
-            List<List<String>> cityCombinations = generateCityCombinations(
-                    potentialDestinations,
-                    search.getNumberOfCities(),
-                    search.getExcludedDestinations()
-            );
-            log.info("Nombre de combinaisons de villes générées: {}", cityCombinations.size());
+    @Value("${itinerary.generation.max-in-flight:16}")
+    private int maxInFlightEvaluations;
 
-            // 4. Pour chaque combinaison, générer les itinéraires possibles
-            List<Itinerary> generatedItineraries = new ArrayList<>();
+    @Value("${itinerary.generation.prefetch-window:32}")
+    private int prefetchWindowSize;
 
-            for (List<String> combination : cityCombinations) {
-                List<Itinerary> itinerariesForCombination = generateItinerariesForCityCombination(
-                        combination,
-                        search,
-                        totalDays
-                );
+    @Value("${itinerary.generation.max-combinations:2000}")
+    private int maxEvaluatedCombinations;
 
-                generatedItineraries.addAll(itinerariesForCombination);
-
-                if (generatedItineraries.size() >= MAX_ITINERARIES_TO_GENERATE) {
-                    break;
-                }
-            }
+    // Écart, en jours, autour de la répartition équilibrée dans lequel les transferts sont tarifés (négatif : aucun)
+    @Value("${itinerary.generation.transfer-day-slack:0}")
+    private int transferDaySlack;
 
-            // 5. Trier et sauvegarder les itinéraires générés
-            List<Itinerary> sortedItineraries = sortItineraries(generatedItineraries);
-            itineraryRepository.saveAll(sortedItineraries);
+    // Nombre maximal de segments distincts demandés par recherche (0 : illimité)
+    @Value("${itinerary.generation.max-planned-legs:1200}")
+    private int maxPlannedLegs;
 
-            log.info("Génération d'itinéraires terminée. {} itinéraires générés", sortedItineraries.size());
-            return sortedItineraries;
+    /**
+     * Génère des itinéraires basés sur les critères de recherche.
+     * La génération démarre à la souscription ; aucun thread n'est bloqué pendant les
+     * appels à l'API de vols ni pendant les écritures en base.
+     */
+    public Mono<List<Itinerary>> generateItineraries(ItinerarySearch search) {
+        return trackedGeneration(search, null).onErrorResume(e -> Mono.just(Collections.emptyList()));
+    }
 
-        } catch (Exception e) {
-            log.error("Erreur lors de la génération d'itinéraires", e);
-            return Collections.emptyList();
-        }
+    /**
+     * Génère des itinéraires en diffusant chacun dès qu'il entre dans le classement,
+     * puis un événement final portant le classement retenu.
+     * Annuler l'abonnement (déconnexion du client) arrête les évaluations restantes.
+     */
+    public Flux<SearchStreamEvent> streamItineraries(ItinerarySearch search) {
+        return Flux.defer(() -> {
+            String searchId = search.getId();
+            Sinks.Many<SearchStreamEvent> events = Sinks.many().unicast().onBackpressureBuffer();
+
+            Mono<SearchStreamEvent> generation = trackedGeneration(search,
+                    itinerary -> events.tryEmitNext(SearchStreamEvent.itinerary(searchId, itinerary)))
+                    .map(itineraries -> SearchStreamEvent.complete(searchId, SearchStatus.DONE, itineraries.stream()
+                            .map(Itinerary::getId)
+                            .collect(Collectors.toList())))
+                    .onErrorResume(e -> Mono.just(
+                            SearchStreamEvent.complete(searchId, SearchStatus.FAILED, Collections.emptyList())))
+                    .doOnNext(events::tryEmitNext)
+                    .doOnTerminate(events::tryEmitComplete)
+                    .doOnCancel(() -> {
+                        log.info("Client déconnecté, génération de la recherche {} annulée", searchId);
+                        searchProgressTracker.markCancelled(searchId).subscribe();
+                    })
+                    .then(Mono.empty());
+
+            // L'événement final passe par le même canal que les itinéraires pour être émis après eux
+            return Flux.merge(events.asFlux(), generation);
+        });
     }
 
     /**
-     * Trouve des destinations potentielles en fonction des préférences
+     * Génération avec suivi de l'état de la recherche (en cours, terminée ou en échec).
+     * Les erreurs sont propagées une fois l'échec enregistré.
+     * Sans {@code onRanked}, les itinéraires ne sont construits qu'en fin de génération.
      */
-    private List<String> findPotentialDestinations(ItinerarySearch search) {
-        // Dans une implémentation réelle, nous utiliserions une base de données ou un service externe
-        // Pour cet exemple, nous retournons une liste prédéfinie de destinations
+    private Mono<List<Itinerary>> trackedGeneration(ItinerarySearch search, Consumer<Itinerary> onRanked) {
+        return Mono.defer(() -> {
+            log.info("Génération d'itinéraires pour la recherche {}", search.getId());
+            SearchPipelineMetrics.SearchTrace trace = searchPipelineMetrics.startSearch(search);
+            AtomicReference<Throwable> failure = new AtomicReference<>();
+
+            // 6. Confier les meilleurs itinéraires, déjà triés par prix croissant, au tampon d'écriture ;
+            // la recherche n'est terminée qu'une fois ses itinéraires écrits et donc consultables
+            // (classement global compris), et réutilisables par les recherches équivalentes
+            return searchProgressTracker.markRunning(search.getId())
+                    .then(Mono.defer(() -> generate(search, onRanked, trace)))
+                    .flatMap(itineraries -> trace.inSpan("persistence", SearchPipelineMetrics.Stage.PERSISTENCE,
+                                    itineraryWriteBehindBuffer.write(itineraries))
+                            .doOnSuccess(written -> cheapestItineraryLeaderboard.offer(itineraries))
+                            .then(searchProgressTracker.markDone(search.getId(), itineraries.size()))
+                            .doOnSuccess(done -> searchResultCache.put(search, itineraries,
+                                    itineraries.size() >= MAX_ITINERARIES_TO_GENERATE))
+                            .thenReturn(itineraries))
+                    .onErrorResume(e -> {
+                        log.error("Erreur lors de la génération d'itinéraires", e);
+                        failure.set(e);
+                        return searchProgressTracker.markFailed(search.getId(), e.getMessage())
+                                .then(Mono.error(e));
+                    })
+                    .doFinally(signal -> trace.finish(signal, failure.get()))
+                    // Le quota de l'API de vols est partagé équitablement entre les recherches en cours
+                    .contextWrite(AmadeusRateLimiter.forClient(search.getId()));
+        });
+    }
 
-        Map<String, List<String>> destinationsByContinent = Map.of(
-                "Europe", Arrays.asList("BCN", "MAD", "LIS", "POR", "PAR", "ROM", "AMS", "BER", "VAL", "SVQ", "MIL", "ATH"),
-                "Asia", Arrays.asList("TYO", "BKK", "SIN", "HKG", "BJS", "SEL", "KUL", "SGN"),
-                "America", Arrays.asList("NYC", "LAX", "MIA", "MEX", "RIO", "BOG", "LIM", "BUE")
-        );
+    private Mono<List<Itinerary>> generate(ItinerarySearch search, Consumer<Itinerary> onRanked,
+                                           SearchPipelineMetrics.SearchTrace trace) {
+        // 1. Calculer la durée totale du voyage
+        long totalDays = ChronoUnit.DAYS.between(search.getDepartureDate(), search.getReturnDate());
+        log.info("Durée totale du voyage: {} jours", totalDays);
 
-        Map<String, List<String>> destinationsByInterest = Map.of(
-                "culture", Arrays.asList("BCN", "MAD", "PAR", "ROM", "ATH", "BER", "TYO", "NYC"),
-                "beach", Arrays.asList("BCN", "LIS", "VAL", "BKK", "MIA", "RIO"),
-                "food", Arrays.asList("BCN", "MAD", "PAR", "VAL", "ROM", "TYO", "BKK", "MEX"),
-                "nature", Arrays.asList("POR", "SVQ", "BER", "BJS", "RIO", "LIM"),
-                "shopping", Arrays.asList("PAR", "MIL", "BER", "HKG", "NYC", "LAX")
-        );
+        if (totalDays < search.getNumberOfCities() * search.getMinDaysPerCity()) {
+            log.warn("Durée totale insuffisante pour visiter le nombre de villes demandé");
+            return Mono.just(Collections.emptyList());
+        }
+
+        if (totalDays > (long) search.getNumberOfCities() * search.getMaxDaysPerCity()) {
+            log.warn("Durée totale trop longue pour le nombre maximum de jours par ville demandé");
+            return Mono.just(Collections.emptyList());
+        }
 
-        // Filtrer par continent
-        Set<String> filteredDestinations = new HashSet<>();
+        // 2. Trouver des destinations potentielles en fonction des préférences
+        List<String> potentialDestinations = trace.inSpan(SearchPipelineMetrics.Stage.DESTINATION_FILTERING,
+                () -> findPotentialDestinations(search));
+        log.info("Destinations potentielles: {}", potentialDestinations);
 
-        if (search.getContinentPreferences() != null && !search.getContinentPreferences().isEmpty()) {
-            for (String continent : search.getContinentPreferences()) {
-                List<String> continentDestinations = destinationsByContinent.getOrDefault(continent, Collections.emptyList());
-                filteredDestinations.addAll(continentDestinations);
-            }
-        } else {
-            // Si aucun continent n'est spécifié, inclure toutes les destinations
-            destinationsByContinent.values().forEach(filteredDestinations::addAll);
+        if (potentialDestinations.size() < search.getNumberOfCities()) {
+            log.warn("Pas assez de destinations potentielles trouvées");
+            return Mono.just(Collections.emptyList());
         }
 
-        // Filtrer par intérêts
-        Set<String> interestDestinations = new HashSet<>();
+        SearchPlan plan = new SearchPlan(search, airportRegistry.find(search.getOrigin()), (int) totalDays,
+                transferDaySlack, maxPlannedLegs, trace);
 
-        if (search.getInterestPreferences() != null && !search.getInterestPreferences().isEmpty()) {
-            for (String interest : search.getInterestPreferences()) {
-                List<String> interestDests = destinationsByInterest.getOrDefault(interest, Collections.emptyList());
-                interestDestinations.addAll(interestDests);
-            }
+        // 3. Classer les destinations par prix de l'aller-retour depuis l'origine : avec un budget de segments
+        // limité, les combinaisons les plus prometteuses sont tarifées en premier
+        return trace.inSpan("flight-pricing", SearchPipelineMetrics.Stage.FLIGHT_PRICING,
+                        rankByRoundTripFare(potentialDestinations, plan))
+                .flatMap(rankedDestinations -> searchCombinations(rankedDestinations, plan, onRanked));
+    }
 
-            // Intersection des destinations par continent et par intérêt
-            filteredDestinations.retainAll(interestDestinations);
+    /**
+     * Parcourt les combinaisons des destinations, dans l'ordre donné, et retient les meilleurs itinéraires
+     */
+    private Mono<List<Itinerary>> searchCombinations(List<String> potentialDestinations, SearchPlan plan,
+                                                     Consumer<Itinerary> onRanked) {
+        ItinerarySearch search = plan.search;
+        SearchPipelineMetrics.SearchTrace trace = plan.trace;
+
+        // 4. Parcourir paresseusement les combinaisons possibles de villes,
+        // désignées par les identifiants entiers de leurs aéroports
+        CityCombinationIterator cityCombinations = new CityCombinationIterator(
+                potentialDestinations,
+                search.getNumberOfCities(),
+                search.getExcludedDestinations()
+        );
+
+        int[] destinationIds = new int[cityCombinations.getPoolSize()];
+        for (int i = 0; i < destinationIds.length; i++) {
+            destinationIds[i] = airportRegistry.find(cityCombinations.getDestination(i));
         }
 
-        // Exclure la ville d'origine
-        filteredDestinations.remove(search.getOrigin());
+        // 5. Par fenêtres de combinaisons : planifier les segments nécessaires et les récupérer
+        // en lot (la fenêtre suivante est préchargée pendant l'évaluation de la courante),
+        // puis tarifer les candidats sans autre appel externe.
+        // Seuls les meilleurs candidats tarifés sont conservés au fil de l'exploration ;
+        // l'itinéraire complet n'est construit que pour ceux qui restent à la fin (ou à leur
+        // entrée dans le classement lorsqu'ils sont diffusés en continu).
+        TopKCollector<PricedRoute> ranking = onRanked == null
+                ? new TopKCollector<>(MAX_ITINERARIES_TO_GENERATE)
+                : new TopKCollector<>(MAX_ITINERARIES_TO_GENERATE,
+                        route -> onRanked.accept(route.toItinerary(itineraryAssembler, search)));
+        AtomicInteger evaluatedCombinations = new AtomicInteger();
+
+        return Flux.<List<int[]>>generate(sink -> {
+                    int remaining = maxEvaluatedCombinations - evaluatedCombinations.get();
+                    long start = System.nanoTime();
+                    List<int[]> window = nextCombinationWindow(cityCombinations, destinationIds,
+                            Math.min(prefetchWindowSize, remaining));
+                    trace.record(SearchPipelineMetrics.Stage.COMBINATION_GENERATION, System.nanoTime() - start);
+
+                    if (window.isEmpty()) {
+                        sink.complete();
+                    } else {
+                        evaluatedCombinations.addAndGet(window.size());
+                        searchPipelineMetrics.candidatesGenerated(window.size());
+                        sink.next(window);
+                    }
+                })
+                .flatMapSequential(window -> trace.inSpan("flight-pricing", SearchPipelineMetrics.Stage.FLIGHT_PRICING,
+                                prefetchFares(window, plan))
+                        .map(fares -> Tuples.of(window, fares)), PREFETCHED_WINDOWS)
+                .concatMap(windowFares -> trace.inSpan("evaluation", null, concurrentEvaluationEnabled
+                        ? evaluateCombinationsConcurrently(windowFares.getT1(), plan, windowFares.getT2(), ranking)
+                        : evaluateCombinationsSequentially(windowFares.getT1(), plan, windowFares.getT2(), ranking)))
+                .then(Mono.fromCallable(() -> {
+                    log.info("Nombre de combinaisons de villes évaluées: {}, candidats classés: {}",
+                            evaluatedCombinations.get(), ranking.getOfferedCount());
+
+                    List<Itinerary> sortedItineraries = trace.inSpan(SearchPipelineMetrics.Stage.ENRICHMENT,
+                            () -> assembleItineraries(ranking.toSortedList(), search));
+                    log.info("Génération d'itinéraires terminée. {} itinéraires générés", sortedItineraries.size());
+                    return sortedItineraries;
+                }));
+    }
 
-        // Exclure les destinations explicitement exclues
-        if (search.getExcludedDestinations() != null) {
-            filteredDestinations.removeAll(search.getExcludedDestinations());
+    private List<Itinerary> assembleItineraries(List<PricedRoute> routes, ItinerarySearch search) {
+        List<Itinerary> itineraries = new ArrayList<>(routes.size());
+        for (PricedRoute route : routes) {
+            itineraries.add(route.toItinerary(itineraryAssembler, search));
         }
+        return itineraries;
+    }
 
-        return new ArrayList<>(filteredDestinations);
+    /**
+     * Trouve des destinations potentielles en fonction des préférences
+     */
+    private List<String> findPotentialDestinations(ItinerarySearch search) {
+        return destinationCatalog.findDestinations(
+                search.getContinentPreferences(),
+                search.getInterestPreferences(),
+                search.getOrigin(),
+                search.getExcludedDestinations()
+        );
     }
 
     /**
-     * Génère toutes les combinaisons possibles de villes
+     * Extrait la prochaine fenêtre de combinaisons à évaluer, sous forme d'identifiants d'aéroports
      */
-    private List<List<String>> generateCityCombinations(List<String> destinations, int numberOfCities, List<String> excludedDestinations) {
-        if (numberOfCities == 1) {
-            return destinations.stream()
-                    .filter(d -> excludedDestinations == null || !excludedDestinations.contains(d))
-                    .map(Collections::singletonList)
-                    .collect(Collectors.toList());
+    private List<int[]> nextCombinationWindow(CityCombinationIterator cityCombinations, int[] destinationIds,
+                                              int windowSize) {
+        List<int[]> window = new ArrayList<>(windowSize);
+
+        while (cityCombinations.hasNext() && window.size() < windowSize) {
+            int[] combination = cityCombinations.nextIndices();
+            for (int i = 0; i < combination.length; i++) {
+                combination[i] = destinationIds[combination[i]];
+            }
+            window.add(combination);
         }
 
-        List<List<String>> result = new ArrayList<>();
+        return window;
+    }
 
-        for (int i = 0; i < destinations.size(); i++) {
-            String destination = destinations.get(i);
+    /**
+     * Trie les destinations par prix de l'aller simple depuis l'origine le jour du départ et du retour
+     * le dernier jour ; ces segments, nécessaires à toute combinaison, comptent dans le budget de segments.
+     * Une destination sans l'un de ces segments ne peut figurer dans aucun circuit : elle est écartée.
+     */
+    private Mono<List<String>> rankByRoundTripFare(List<String> destinations, SearchPlan plan) {
+        String origin = plan.search.getOrigin();
+        Set<LegKey> roundTripLegs = new HashSet<>();
 
-            if (excludedDestinations != null && excludedDestinations.contains(destination)) {
-                continue;
+        for (String destination : destinations) {
+            roundTripLegs.add(new LegKey(origin, destination, plan.dates[0]));
+            roundTripLegs.add(new LegKey(destination, origin, plan.dates[plan.totalDays]));
+        }
+        plan.plannedLegs.addAll(roundTripLegs);
+
+        return amadeusFlightService.prefetchLegs(roundTripLegs, plan.search.getBudget()).map(legs -> {
+            Map<String, Double> roundTripFares = new HashMap<>();
+            for (String destination : destinations) {
+                FlightLeg outbound = legs.get(new LegKey(origin, destination, plan.dates[0]));
+                FlightLeg inbound = legs.get(new LegKey(destination, origin, plan.dates[plan.totalDays]));
+                if (outbound != null && inbound != null) {
+                    roundTripFares.put(destination, outbound.getPrice() + inbound.getPrice());
+                }
+            }
+
+            // Tri stable : à prix égal, l'ordre du catalogue est conservé
+            List<String> ranked = new ArrayList<>(roundTripFares.size());
+            for (String destination : destinations) {
+                if (roundTripFares.containsKey(destination)) {
+                    ranked.add(destination);
+                }
             }
+            ranked.sort(Comparator.comparingDouble(roundTripFares::get));
+            log.info("Destinations classées par aller-retour: {} sur {} tarifées", ranked.size(), destinations.size());
+            return ranked;
+        });
+    }
 
-            List<String> remainingDestinations = new ArrayList<>(destinations.subList(i + 1, destinations.size()));
-            List<List<String>> subCombinations = generateCityCombinations(remainingDestinations, numberOfCities - 1, excludedDestinations);
+    /**
+     * Détermine l'ensemble des segments distincts dont les candidats de la fenêtre peuvent avoir besoin,
+     * les récupère en lot et les range dans une matrice de tarifs propre à la fenêtre.
+     * Les combinaisons dont les segments dépasseraient le budget de segments de la recherche
+     * sont retirées de la fenêtre.
+     */
+    private Mono<FareMatrix> prefetchFares(List<int[]> window, SearchPlan plan) {
+        // Aéroports couverts : l'origine puis chaque ville distincte de la fenêtre
+        boolean[] covered = new boolean[airportRegistry.size()];
+        int[] airports = new int[1 + window.size() * plan.numberOfCities];
+        int airportCount = 0;
+
+        airports[airportCount++] = plan.originId;
+        covered[plan.originId] = true;
+
+        Set<LegKey> requiredLegs = new HashSet<>();
+        Set<LegKey> combinationLegs = new HashSet<>();
+
+        for (Iterator<int[]> combinations = window.iterator(); combinations.hasNext(); ) {
+            int[] combination = combinations.next();
+            combinationLegs.clear();
+            addRouteLegs(combination, plan, combinationLegs);
+
+            if (!plan.planLegs(combinationLegs)) {
+                combinations.remove();
+                searchPipelineMetrics.candidateRejected(SearchPipelineMetrics.Rejection.LEG_BUDGET);
+                continue;
+            }
 
-            for (List<String> subCombination : subCombinations) {
-                List<String> combination = new ArrayList<>();
-                combination.add(destination);
-                combination.addAll(subCombination);
-                result.add(combination);
+            requiredLegs.addAll(combinationLegs);
+            for (int city : combination) {
+                if (!covered[city]) {
+                    covered[city] = true;
+                    airports[airportCount++] = city;
+                }
             }
         }
 
-        return result;
+        log.info("Préchargement de {} segments distincts pour {} combinaisons", requiredLegs.size(), window.size());
+        int[] windowAirports = Arrays.copyOf(airports, airportCount);
+
+        return amadeusFlightService.prefetchLegs(requiredLegs, plan.search.getBudget()).map(prefetchedLegs -> {
+            FareMatrix fares = new FareMatrix(windowAirports, airportRegistry.size(), plan.totalDays + 1);
+            prefetchedLegs.forEach((legKey, leg) -> fares.put(
+                    (int) ChronoUnit.DAYS.between(plan.search.getDepartureDate(), legKey.getDepartureDate()),
+                    airportRegistry.find(legKey.getFrom()),
+                    airportRegistry.find(legKey.getTo()),
+                    leg));
+
+            return fares;
+        });
     }
 
     /**
-     * Génère des itinéraires pour une combinaison de villes
+     * Ajoute tous les segments dont l'optimisation de l'ordre de visite et des dates peut avoir besoin :
+     * aller vers chaque ville le jour du départ, vols entre chaque couple de villes aux seuls jours
+     * où un transfert peut partir (voir {@link SearchPlan#transferDays}), puis retour le dernier jour
      */
-    private List<Itinerary> generateItinerariesForCityCombination(List<String> cityCodes, ItinerarySearch search, long totalDays) {
-        List<Itinerary> itineraries = new ArrayList<>();
-
-        // Générer différentes distributions de jours entre les villes
-        List<List<Integer>> dayDistributions = generateDayDistributions(
-                (int) totalDays,
-                cityCodes.size(),
-                search.getMinDaysPerCity(),
-                search.getMaxDaysPerCity()
-        );
+    private void addRouteLegs(int[] combination, SearchPlan plan, Set<LegKey> legs) {
+        String origin = plan.search.getOrigin();
 
-        for (List<Integer> dayDistribution : dayDistributions) {
-            Itinerary itinerary = createItinerary(cityCodes, dayDistribution, search);
+        for (int city : combination) {
+            String code = airportRegistry.codeOf(city);
+            legs.add(new LegKey(origin, code, plan.dates[0]));
+            legs.add(new LegKey(code, origin, plan.dates[plan.totalDays]));
+        }
 
-            if (itinerary != null && itinerary.getTotalPrice() <= search.getBudget()) {
-                itineraries.add(itinerary);
-            }
+        for (int day : plan.transferDays) {
+            LocalDate date = plan.dates[day];
 
-            if (itineraries.size() >= 2) {  // Limiter le nombre d'itinéraires par combinaison
-                break;
+            for (int from : combination) {
+                for (int to : combination) {
+                    if (from != to) {
+                        legs.add(new LegKey(airportRegistry.codeOf(from), airportRegistry.codeOf(to), date));
+                    }
+                }
             }
         }
-
-        return itineraries;
     }
 
     /**
-     * Génère les distributions possibles de jours entre les villes
+     * Optimise conjointement l'ordre de visite et la répartition des jours d'une combinaison.
+     * Partant d'une répartition équilibrée, on alterne le meilleur ordre pour les dates courantes
+     * et les meilleures dates pour l'ordre courant, tant que le coût diminue.
+     * Retourne null si aucun circuit n'est entièrement tarifable.
      */
-    private List<List<Integer>> generateDayDistributions(int totalDays, int numberOfCities, int minDays, int maxDays) {
-        List<List<Integer>> distributions = new ArrayList<>();
+    private RoutePlan planRoute(int[] combination, SearchPlan plan, FareMatrix fares) {
+        int k = combination.length;
+        int origin = fares.localIndex(plan.originId);
 
-        // Générer une distribution de base où chaque ville a le minimum de jours
-        int remainingDays = totalDays - (numberOfCities * minDays);
-
-        if (remainingDays < 0) {
-            return distributions;
+        int[] cities = new int[k];
+        for (int j = 0; j < k; j++) {
+            cities[j] = fares.localIndex(combination[j]);
         }
 
-        // Ajouter quelques distributions types pour simplifier
-        List<Integer> baseDistribution = new ArrayList<>(Collections.nCopies(numberOfCities, minDays));
+        double[] dailyCosts = new double[k];
+        Arrays.fill(dailyCosts, DAILY_STAY_COST);
+
+        RoutePlan best = cheapestOrder(cities, origin, plan.balancedStays, dailyCosts, fares);
 
-        // Distribution 1: Répartir les jours restants uniformément
-        List<Integer> distribution1 = new ArrayList<>(baseDistribution);
-        int daysPerCity = remainingDays / numberOfCities;
-        int extraDays = remainingDays % numberOfCities;
+        for (int round = 0; best != null && round < MAX_ROUTE_PLANNING_ROUNDS; round++) {
+            int[] route = best.cities;
+            int[] stays = DayAllocationOptimizer.optimize(k, plan.totalDays, plan.minDays, plan.maxDays,
+                    (rank, day) -> fares.fare(day, rank == 0 ? origin : route[rank - 1], rank == k ? origin : route[rank]),
+                    dailyCosts);
 
-        for (int i = 0; i < numberOfCities; i++) {
-            distribution1.set(i, distribution1.get(i) + daysPerCity + (i < extraDays ? 1 : 0));
+            if (stays == null || Arrays.equals(stays, best.stays)) {
+                break;
+            }
 
-            // Vérifier que le nombre de jours ne dépasse pas le maximum
-            if (distribution1.get(i) > maxDays) {
-                distribution1.set(i, maxDays);
+            RoutePlan reordered = cheapestOrder(cities, origin, stays, dailyCosts, fares);
+            if (reordered == null || reordered.totalCost >= best.totalCost - COST_EPSILON) {
+                // Les nouvelles dates améliorent l'ordre courant sans justifier un nouvel ordre
+                RoutePlan redated = new RoutePlan(route, stays, cumulativeDays(stays),
+                        routeCost(route, origin, stays, dailyCosts, fares));
+                if (redated.totalCost < best.totalCost) {
+                    best = redated;
+                }
+                break;
             }
+
+            best = reordered;
         }
 
-        distributions.add(distribution1);
+        return best;
+    }
+
+    /**
+     * Cherche l'ordre de visite le moins cher pour une répartition des jours donnée
+     */
+    private RoutePlan cheapestOrder(int[] cities, int origin, int[] stays, double[] dailyCosts, FareMatrix fares) {
+        int k = cities.length;
+        int[] legDays = cumulativeDays(stays);
 
-        // Distribution 2: Plus de jours dans la première ville
-        if (numberOfCities > 1 && remainingDays > 0) {
-            List<Integer> distribution2 = new ArrayList<>(baseDistribution);
-            int extraDaysForFirst = Math.min(remainingDays, maxDays - minDays);
-            distribution2.set(0, distribution2.get(0) + extraDaysForFirst);
+        double[] outbound = new double[k];
+        double[] inbound = new double[k];
+        double[][] transfers = new double[k][];
 
-            remainingDays -= extraDaysForFirst;
-            int daysPerRemaining = numberOfCities > 1 ? remainingDays / (numberOfCities - 1) : 0;
+        for (int j = 0; j < k; j++) {
+            outbound[j] = fares.fare(legDays[0], origin, cities[j]);
+            inbound[j] = fares.fare(legDays[k], cities[j], origin);
+        }
 
-            for (int i = 1; i < numberOfCities; i++) {
-                distribution2.set(i, distribution2.get(i) + daysPerRemaining);
+        for (int rank = 1; rank < k; rank++) {
+            double[] rankFares = new double[k * k];
 
-                if (distribution2.get(i) > maxDays) {
-                    distribution2.set(i, maxDays);
+            for (int i = 0; i < k; i++) {
+                for (int j = 0; j < k; j++) {
+                    rankFares[i * k + j] = i == j
+                            ? Double.POSITIVE_INFINITY
+                            : fares.fare(legDays[rank], cities[i], cities[j]);
                 }
             }
 
-            distributions.add(distribution2);
+            transfers[rank] = rankFares;
         }
 
-        // Distribution 3: Plus de jours dans la dernière ville
-        if (numberOfCities > 1 && remainingDays > 0) {
-            List<Integer> distribution3 = new ArrayList<>(baseDistribution);
-            int extraDaysForLast = Math.min(remainingDays, maxDays - minDays);
-            distribution3.set(numberOfCities - 1, distribution3.get(numberOfCities - 1) + extraDaysForLast);
+        RouteOptimizer.Route route = RouteOptimizer.optimize(outbound, transfers, inbound);
 
-            remainingDays -= extraDaysForLast;
-            int daysPerRemaining = numberOfCities > 1 ? remainingDays / (numberOfCities - 1) : 0;
-
-            for (int i = 0; i < numberOfCities - 1; i++) {
-                distribution3.set(i, distribution3.get(i) + daysPerRemaining);
+        if (route == null) {
+            return null;
+        }
 
-                if (distribution3.get(i) > maxDays) {
-                    distribution3.set(i, maxDays);
-                }
-            }
+        int[] orderedCities = new int[k];
+        int[] order = route.getOrder();
+        double stayCost = 0;
 
-            distributions.add(distribution3);
+        for (int position = 0; position < k; position++) {
+            orderedCities[position] = cities[order[position]];
+            stayCost += stays[position] * dailyCosts[position];
         }
 
-        return distributions;
+        return new RoutePlan(orderedCities, stays, legDays, route.getCost() + stayCost);
     }
 
     /**
-     * Crée un itinéraire complet avec vols, villes et détails de budget
+     * Coût d'un circuit (segments et séjours) pour un ordre et une répartition donnés
      */
-    private Itinerary createItinerary(List<String> cityCodes, List<Integer> dayDistribution, ItinerarySearch search) {
-        try {
-            // Créer les segments de vol
-            List<String> origins = new ArrayList<>();
-            List<String> destinations = new ArrayList<>();
-            List<LocalDate> departureDates = new ArrayList<>();
-
-            // Vol initial depuis la ville d'origine
-            origins.add(search.getOrigin());
-            destinations.add(cityCodes.get(0));
-            departureDates.add(search.getDepartureDate());
-
-            // Vols entre les villes de l'itinéraire
-            LocalDate currentDate = search.getDepartureDate();
-
-            for (int i = 0; i < cityCodes.size() - 1; i++) {
-                currentDate = currentDate.plusDays(dayDistribution.get(i));
-
-                origins.add(cityCodes.get(i));
-                destinations.add(cityCodes.get(i + 1));
-                departureDates.add(currentDate);
-            }
-
-            // Vol de retour vers la ville d'origine
-            currentDate = currentDate.plusDays(dayDistribution.get(cityCodes.size() - 1));
+    private double routeCost(int[] route, int origin, int[] stays, double[] dailyCosts, FareMatrix fares) {
+        int[] legDays = cumulativeDays(stays);
+        double cost = 0;
+        int previous = origin;
+
+        for (int rank = 0; rank < route.length; rank++) {
+            cost += fares.fare(legDays[rank], previous, route[rank]) + stays[rank] * dailyCosts[rank];
+            previous = route[rank];
+        }
 
-            origins.add(cityCodes.get(cityCodes.size() - 1));
-            destinations.add(search.getOrigin());
-            departureDates.add(currentDate);
+        return cost + fares.fare(legDays[route.length], previous, origin);
+    }
 
-            // Rechercher les vols avec l'API Amadeus
-            List<FlightLeg> legs = amadeusFlightService.searchMultiCityFlights(
-                    origins,
-                    destinations,
-                    departureDates,
-                    search.getBudget()
-            );
+    /**
+     * Jour de départ de chaque segment : le segment de rang p part après les séjours des p premières villes
+     */
+    private static int[] cumulativeDays(int[] stays) {
+        int[] days = new int[stays.length + 1];
+        for (int rank = 1; rank <= stays.length; rank++) {
+            days[rank] = days[rank - 1] + stays[rank - 1];
+        }
+        return days;
+    }
 
-            if (legs.size() != origins.size()) {
-                log.warn("Impossible de trouver tous les vols nécessaires");
-                return null;
+    /**
+     * Évalue les combinaisons une à une, sur un seul thread de l'ordonnanceur d'évaluation
+     */
+    private Mono<Void> evaluateCombinationsSequentially(List<int[]> combinations, SearchPlan plan, FareMatrix fares,
+                                                        TopKCollector<PricedRoute> ranking) {
+        return Mono.<Void>fromRunnable(() -> {
+            for (int[] combination : combinations) {
+                evaluateCombination(combination, plan, fares, ranking);
             }
+        }).subscribeOn(itineraryEvaluationScheduler);
+    }
 
-            // Créer les objets City
-            List<City> cities = new ArrayList<>();
-            currentDate = search.getDepartureDate();
+    /**
+     * Évalue les combinaisons en parallèle sur l'ordonnanceur d'évaluation,
+     * sans dépasser le nombre de tâches en vol autorisé
+     */
+    private Mono<Void> evaluateCombinationsConcurrently(List<int[]> combinations, SearchPlan plan, FareMatrix fares,
+                                                        TopKCollector<PricedRoute> ranking) {
+        return Flux.fromIterable(combinations)
+                .flatMap(combination -> Mono.<Void>fromRunnable(() -> evaluateCombination(combination, plan, fares, ranking))
+                        .subscribeOn(itineraryEvaluationScheduler), maxInFlightEvaluations)
+                .then();
+    }
 
-            for (int i = 0; i < cityCodes.size(); i++) {
-                String cityCode = cityCodes.get(i);
-                int stayDuration = dayDistribution.get(i);
+    /**
+     * Évalue une combinaison de villes et propose son itinéraire au classement.
+     * Le coût du circuit étant connu avant l'assemblage, un candidat hors budget ou
+     * moins bon que le pire candidat retenu est écarté sans que ses segments soient rassemblés.
+     */
+    private void evaluateCombination(int[] combination, SearchPlan plan, FareMatrix fares,
+                                     TopKCollector<PricedRoute> ranking) {
+        searchProgressTracker.incrementProgress(plan.search.getId());
+
+        // Choisir l'ordre de visite et les dates les moins chers
+        long start = System.nanoTime();
+        RoutePlan routePlan = planRoute(combination, plan, fares);
+        long planned = System.nanoTime();
+        plan.trace.record(SearchPipelineMetrics.Stage.DISTRIBUTION_GENERATION, planned - start);
+
+        if (routePlan == null) {
+            log.warn("Impossible de trouver tous les vols nécessaires");
+            searchPipelineMetrics.candidateRejected(SearchPipelineMetrics.Rejection.MISSING_LEGS);
+            return;
+        }
 
-                LocalDate arrivalDate = currentDate;
-                LocalDate departureDate = currentDate.plusDays(stayDuration);
-                currentDate = departureDate;
+        searchPipelineMetrics.candidatePriced();
 
-                City city = createCityObject(cityCode, stayDuration + " days", arrivalDate, departureDate);
-                cities.add(city);
-            }
+        if (routePlan.totalCost > plan.search.getBudget()) {
+            searchPipelineMetrics.candidateRejected(SearchPipelineMetrics.Rejection.OVER_BUDGET);
+            return;
+        }
 
-            // Calculer le coût total des vols
-            double totalFlightCost = legs.stream().mapToDouble(FlightLeg::getPrice).sum();
-
-            // Calculer les coûts estimés d'hébergement et de nourriture
-            int totalStayDays = dayDistribution.stream().mapToInt(Integer::intValue).sum();
-            double accommodationCost = totalStayDays * ACCOMMODATION_COST_PER_DAY;
-            double foodCost = totalStayDays * FOOD_COST_PER_DAY;
-
-            // Créer la répartition du budget
-            BudgetBreakdown budgetBreakdown = BudgetBreakdown.builder()
-                    .flights(totalFlightCost)
-                    .estimatedAccommodation(accommodationCost)
-                    .estimatedFood(foodCost)
-                    .total(totalFlightCost + accommodationCost + foodCost)
-                    .remainingBudget(search.getBudget() - (totalFlightCost + accommodationCost + foodCost))
-                    .build();
-
-            // Générer des conseils d'optimisation
-            List<String> optimizationTips = generateOptimizationTips(legs, cities, budgetBreakdown);
-
-            // Créer et retourner l'itinéraire complet
-            return Itinerary.builder()
-                    .id("itin-" + UUID.randomUUID().toString().substring(0, 6))
-                    .searchId(search.getId())
-                    .totalPrice(budgetBreakdown.getTotal())
-                    .totalDuration(totalStayDays + " days")
-                    .legs(legs)
-                    .cities(cities)
-                    .budgetBreakdown(budgetBreakdown)
-                    .optimizationTips(optimizationTips)
-                    .build();
-
-        } catch (Exception e) {
-            log.error("Erreur lors de la création de l'itinéraire", e);
-            return null;
+        if (!ranking.wouldAccept(routePlan.totalCost)) {
+            searchPipelineMetrics.candidateRejected(SearchPipelineMetrics.Rejection.OUTRANKED);
+            return;
         }
+
+        PricedRoute route = priceRoute(routePlan, plan, fares);
+        ranking.offer(route, route.getTotalPrice());
+        plan.trace.record(SearchPipelineMetrics.Stage.RANKING, System.nanoTime() - planned);
     }
 
     /**
-     * Crée un objet City avec ses détails
+     * Rassemble les segments du circuit retenu, qui ne sont valables que pour la fenêtre
+     * de tarification courante, et les aéroports dans l'ordre de visite
      */
-    private City createCityObject(String cityCode, String stayDuration, LocalDate arrivalDate, LocalDate departureDate) {
-        // Dans une implémentation réelle, nous utiliserions un service pour obtenir les détails de la ville
-        Map<String, String> cityNames = Map.of(
-                "BCN", "Barcelona",
-                "MAD", "Madrid",
-                "LIS", "Lisbon",
-                "VAL", "Valencia",
-                "POR", "Porto",
-                "PAR", "Paris",
-                "ROM", "Rome",
-                "SVQ", "Seville"
-        );
-
-        Map<String, String> countries = Map.of(
-                "BCN", "Spain",
-                "MAD", "Spain",
-                "LIS", "Portugal",
-                "VAL", "Spain",
-                "POR", "Portugal",
-                "PAR", "France",
-                "ROM", "Italy",
-                "SVQ", "Spain"
-        );
-
-        Map<String, List<String>> highlights = Map.of(
-                "BCN", Arrays.asList("Sagrada Familia", "Park Güell", "La Rambla", "Barceloneta Beach"),
-                "MAD", Arrays.asList("Prado Museum", "Royal Palace", "Retiro Park", "Plaza Mayor"),
-                "LIS", Arrays.asList("Belém Tower", "Jerónimos Monastery", "Alfama District", "Time Out Market"),
-                "VAL", Arrays.asList("City of Arts and Sciences", "Valencia Cathedral", "Malvarrosa Beach", "Central Market"),
-                "POR", Arrays.asList("Ribeira District", "Dom Luís I Bridge", "Porto Cathedral", "Wine Cellars"),
-                "SVQ", Arrays.asList("Alcázar Palace", "Seville Cathedral", "Plaza de España", "Barrio Santa Cruz")
-        );
+    private PricedRoute priceRoute(RoutePlan routePlan, SearchPlan plan, FareMatrix fares) {
+        int[] route = routePlan.cities;
+        int[] legDays = routePlan.legDays;
+        int origin = fares.localIndex(plan.originId);
+
+        int[] airportIds = new int[route.length];
+        FlightLeg[] legs = new FlightLeg[route.length + 1];
+        int previous = origin;
+
+        // Aller, vols entre les villes, retour
+        for (int rank = 0; rank < route.length; rank++) {
+            airportIds[rank] = fares.airportId(route[rank]);
+            legs[rank] = fares.leg(legDays[rank], previous, route[rank]);
+            previous = route[rank];
+        }
+        legs[route.length] = fares.leg(legDays[route.length], previous, origin);
 
-        // Simuler des prévisions météo
-        Random random = new Random();
-        int avgTemp = 20 + random.nextInt(16); // Entre 20 et 35 degrés
-        String condition = random.nextBoolean() ? "Sunny" : "Partly Cloudy";
-
-        WeatherForecast weather = WeatherForecast.builder()
-                .averageTemp(avgTemp)
-                .condition(condition)
-                .build();
-
-        return City.builder()
-                .code(cityCode)
-                .name(cityNames.getOrDefault(cityCode, "Unknown City"))
-                .country(countries.getOrDefault(cityCode, "Unknown Country"))
-                .stayDuration(stayDuration)
-                .arrivalDate(arrivalDate)
-                .departureDate(departureDate)
-                .highlights(highlights.getOrDefault(cityCode, Collections.emptyList()))
-                .weatherForecast(weather)
-                .build();
+        return new PricedRoute(airportIds, routePlan.stays, legDays, legs, DAILY_STAY_COST);
     }
 
     /**
-     * Génère des conseils d'optimisation pour l'itinéraire
+     * Données d'une recherche partagées par tous ses candidats : identifiant de l'origine,
+     * bornes de séjour, répartition initiale des jours, jours de transfert tarifés, dates du voyage,
+     * segments déjà demandés et suivi de la recherche
      */
-    private List<String> generateOptimizationTips(List<FlightLeg> legs, List<City> cities, BudgetBreakdown budget) {
-        List<String> tips = new ArrayList<>();
-
-        // Simuler quelques conseils d'optimisation
-        if (legs.size() > 2) {
-            tips.add("Booking accommodation in " + cities.get(0).getName() + " 1 week earlier could save ~€30");
+    private static final class SearchPlan {
+        private final ItinerarySearch search;
+        private final int originId;
+        private final int totalDays;
+        private final int numberOfCities;
+        private final int minDays;
+        private final int maxDays;
+        private final int[] balancedStays;
+        private final int[] transferDays;
+        private final LocalDate[] dates;
+        private final int maxPlannedLegs;
+        // Fenêtres planifiées une à une par le générateur : pas d'accès concurrent
+        private final Set<LegKey> plannedLegs = new HashSet<>();
+        private final SearchPipelineMetrics.SearchTrace trace;
+
+        private SearchPlan(ItinerarySearch search, int originId, int totalDays, int transferDaySlack,
+                           int maxPlannedLegs, SearchPipelineMetrics.SearchTrace trace) {
+            this.search = search;
+            this.trace = trace;
+            this.originId = originId;
+            this.totalDays = totalDays;
+            this.numberOfCities = search.getNumberOfCities();
+            this.minDays = search.getMinDaysPerCity();
+            this.maxDays = search.getMaxDaysPerCity();
+            this.balancedStays = DayAllocationOptimizer.balanced(numberOfCities, totalDays, minDays, maxDays);
+            this.transferDays = transferDays(numberOfCities, totalDays, minDays, maxDays, balancedStays,
+                    transferDaySlack);
+            this.maxPlannedLegs = maxPlannedLegs;
+
+            this.dates = new LocalDate[totalDays + 1];
+            for (int day = 0; day <= totalDays; day++) {
+                dates[day] = search.getDepartureDate().plusDays(day);
+            }
         }
 
-        if (budget.getTotal() > 700) {
-            tips.add("Flying on Tuesday instead of Thursday could reduce the return flight cost by ~€20");
-        }
+        /**
+         * Réserve les segments d'une combinaison dans le budget de la recherche ; les segments
+         * déjà demandés par une fenêtre précédente ne comptent pas
+         *
+         * @return false, sans rien réserver, si le budget ne permet pas de les demander tous
+         */
+        private boolean planLegs(Set<LegKey> legs) {
+            if (maxPlannedLegs > 0) {
+                int newLegs = 0;
+                for (LegKey leg : legs) {
+                    if (!plannedLegs.contains(leg)) {
+                        newLegs++;
+                    }
+                }
+                if (plannedLegs.size() + newLegs > maxPlannedLegs) {
+                    return false;
+                }
+            }
 
-        if (budget.getEstimatedAccommodation() > 250) {
-            tips.add("Staying in hostels instead of hotels could save ~€50");
+            plannedLegs.addAll(legs);
+            return true;
         }
 
-        if (legs.size() >= 3) {
-            tips.add("Booking all flights together as a multi-city package could reduce total flight costs by ~€25");
-        }
+        /**
+         * Jours où un vol entre deux villes est tarifé : réunion, sur chaque rang de transfert,
+         * des bornes parcourues par {@link DayAllocationOptimizer}, resserrées à {@code slack} jours
+         * autour du départ prévu par la répartition équilibrée (sans resserrement si {@code slack} est
+         * négatif). Un jour non tarifé vaut {@link Double#POSITIVE_INFINITY} dans la matrice : l'optimiseur
+         * des dates ne le retient jamais.
+         */
+        private static int[] transferDays(int numberOfCities, int totalDays, int minDays, int maxDays,
+                                          int[] balancedStays, int slack) {
+            boolean[] feasible = new boolean[totalDays + 1];
+            int count = 0;
+            int balancedDay = 0;
+
+            for (int rank = 1; rank < numberOfCities; rank++) {
+                balancedDay += balancedStays[rank - 1];
+                int earliest = Math.max(rank * minDays, totalDays - (numberOfCities - rank) * maxDays);
+                int latest = Math.min(rank * maxDays, totalDays - (numberOfCities - rank) * minDays);
+
+                if (slack >= 0) {
+                    earliest = Math.max(earliest, balancedDay - slack);
+                    latest = Math.min(latest, balancedDay + slack);
+                }
 
-        Collections.shuffle(tips);
-        return tips.subList(0, Math.min(2, tips.size()));
+                for (int day = Math.max(earliest, 0); day <= Math.min(latest, totalDays); day++) {
+                    if (!feasible[day]) {
+                        feasible[day] = true;
+                        count++;
+                    }
+                }
+            }
+
+            int[] days = new int[count];
+            for (int day = 0, i = 0; day <= totalDays; day++) {
+                if (feasible[day]) {
+                    days[i++] = day;
+                }
+            }
+            return days;
+        }
     }
 
     /**
-     * Trie les itinéraires générés selon différents critères
+     * Circuit retenu pour une combinaison : villes dans l'ordre de visite (indices locaux),
+     * séjours, jour de départ de chaque segment et coût total
      */
-    private List<Itinerary> sortItineraries(List<Itinerary> itineraries) {
-        // Trier par prix total croissant
-        return itineraries.stream()
-                .sorted(Comparator.comparingDouble(Itinerary::getTotalPrice))
-                .limit(MAX_ITINERARIES_TO_GENERATE)
-                .collect(Collectors.toList());
+    private static final class RoutePlan {
+        private final int[] cities;
+        private final int[] stays;
+        private final int[] legDays;
+        private final double totalCost;
+
+        private RoutePlan(int[] cities, int[] stays, int[] legDays, double totalCost) {
+            this.cities = cities;
+            this.stays = stays;
+            this.legDays = legDays;
+            this.totalCost = totalCost;
+        }
     }
-}
\ No newline at end of file
+}
@@ -1,38 +1,132 @@
 package com.travelapi.multidestination.service;
 
+import com.travelapi.multidestination.exception.SearchCapacityExceededException;
 import com.travelapi.multidestination.model.Itinerary;
 import com.travelapi.multidestination.model.ItinerarySearch;
+import com.travelapi.multidestination.model.SearchStatus;
+import com.travelapi.multidestination.model.dto.ItineraryPage;
 import com.travelapi.multidestination.model.dto.ItinerarySearchRequest;
+import com.travelapi.multidestination.model.dto.SearchStreamEvent;
+import com.travelapi.multidestination.repository.ItineraryCursor;
 import com.travelapi.multidestination.repository.ItineraryRepository;
 import com.travelapi.multidestination.repository.ItinerarySearchRepository;
 import com.travelapi.multidestination.service.external.AmadeusFlightService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Optional;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class ItineraryService {
 
+    static final int DEFAULT_PAGE_SIZE = 20;
+    static final int MAX_PAGE_SIZE = 100;
+
     private final ItineraryRepository itineraryRepository;
     private final ItinerarySearchRepository itinerarySearchRepository;
     private final ItineraryGeneratorService itineraryGeneratorService;
+    private final SearchProgressTracker searchProgressTracker;
+    private final SearchResultCache searchResultCache;
+    private final CheapestItineraryLeaderboard cheapestItineraryLeaderboard;
+    private final OriginCatalog originCatalog;
+
+    // Recherches en cours de génération ; au-delà de la limite, les nouvelles recherches sont refusées
+    private final AtomicInteger activeSearches = new AtomicInteger();
+
+    @Value("${itinerary.search.max-active:1000}")
+    private int maxActiveSearches;
     
     /**
-     * Crée une nouvelle recherche d'itinéraire et lance la recherche d'itinéraires correspondants
+     * Crée une nouvelle recherche d'itinéraire et lance la recherche d'itinéraires correspondants.
+     * Si une recherche équivalente récente couvre son budget, ses itinéraires sont réutilisés.
      */
-    public ItinerarySearch createSearch(ItinerarySearchRequest request) {
+    public Mono<ItinerarySearch> createSearch(ItinerarySearchRequest request) {
         log.info("Création d'une nouvelle recherche d'itinéraire depuis {}", request.getOrigin());
         
-        // Convertir la requête en entité ItinerarySearch
-        ItinerarySearch search = ItinerarySearch.builder()
-                .origin(request.getOrigin())
+        return Mono.defer(() -> {
+            ItinerarySearch search = toSearch(request);
+            SearchResultCache.CachedResult cached = searchResultCache.find(search);
+            
+            if (cached != null) {
+                return saveReused(search, cached);
+            }
+            
+            // Sauvegarder la recherche puis lancer la génération ; la réponse n'attend pas les résultats
+            return saveAndAdmit(search).doOnNext(savedSearch ->
+                    itineraryGeneratorService.generateItineraries(savedSearch)
+                            .doFinally(signal -> activeSearches.decrementAndGet())
+                            .subscribe());
+        });
+    }
+    
+    /**
+     * Crée une nouvelle recherche d'itinéraire et diffuse ses itinéraires au fil de la génération.
+     * La génération est liée à l'abonnement : elle s'arrête si le client se déconnecte.
+     * Les itinéraires réutilisés d'une recherche équivalente sont diffusés immédiatement.
+     */
+    public Flux<SearchStreamEvent> streamSearch(ItinerarySearchRequest request) {
+        log.info("Création d'une recherche d'itinéraire diffusée en continu depuis {}", request.getOrigin());
+        
+        return Flux.defer(() -> {
+            ItinerarySearch search = toSearch(request);
+            SearchResultCache.CachedResult cached = searchResultCache.find(search);
+            
+            if (cached != null) {
+                return saveReused(search, cached).flatMapMany(savedSearch -> replay(savedSearch.getId(), cached));
+            }
+            
+            return saveAndAdmit(search).flatMapMany(savedSearch ->
+                    itineraryGeneratorService.streamItineraries(savedSearch)
+                            .doFinally(signal -> activeSearches.decrementAndGet()));
+        });
+    }
+    
+    /**
+     * Enregistre directement comme terminée une recherche servie par le cache de résultats
+     */
+    private Mono<ItinerarySearch> saveReused(ItinerarySearch search, SearchResultCache.CachedResult cached) {
+        log.info("Recherche équivalente à {} en cache, {} itinéraires réutilisés",
+                cached.getSourceSearchId(), cached.getItineraries().size());
+        search.setStatus(SearchStatus.DONE);
+        search.setResultCount(cached.getItineraries().size());
+        search.setResultSourceSearchId(cached.getSourceSearchId());
+        return itinerarySearchRepository.save(search);
+    }
+    
+    private Flux<SearchStreamEvent> replay(String searchId, SearchResultCache.CachedResult cached) {
+        List<String> rankedIds = new ArrayList<>(cached.getItineraries().size());
+        for (Itinerary itinerary : cached.getItineraries()) {
+            rankedIds.add(itinerary.getId());
+        }
+        
+        return Flux.fromIterable(cached.getItineraries())
+                .map(itinerary -> SearchStreamEvent.itinerary(searchId, itinerary))
+                .concatWith(Mono.just(SearchStreamEvent.complete(searchId, SearchStatus.DONE, rankedIds)));
+    }
+    
+    /**
+     * Convertit la requête en entité ItinerarySearch ; un point de départ inconnu est refusé
+     */
+    private ItinerarySearch toSearch(ItinerarySearchRequest request) {
+        String origin = iataCode(request.getOrigin());
+        if (origin == null || originCatalog.find(origin) < 0) {
+            throw new IllegalArgumentException("Point de départ inconnu: " + origin);
+        }
+        
+        return ItinerarySearch.builder()
+                .origin(origin)
                 .departureDate(request.getDepartureDate())
                 .returnDate(request.getReturnDate())
                 .budget(request.getBudget())
@@ -41,49 +135,131 @@ public class ItineraryService {
                 .maxDaysPerCity(request.getMaxDaysPerCity())
                 .continentPreferences(request.getPreferences() != null ? request.getPreferences().getContinent() : null)
                 .interestPreferences(request.getPreferences() != null ? request.getPreferences().getInterests() : null)
-                .excludedDestinations(request.getPreferences() != null ? request.getPreferences().getExcludedDestinations() : null)
+                .excludedDestinations(request.getPreferences() != null ? iataCodes(request.getPreferences().getExcludedDestinations()) : null)
                 .createdAt(LocalDateTime.now().toLocalDate())
+                .status(SearchStatus.PENDING)
                 .build();
-        
-        // Sauvegarder la recherche
-        ItinerarySearch savedSearch = itinerarySearchRepository.save(search);
-        
-        // TODO: Implémenter la logique pour générer des itinéraires basés sur cette recherche
-        // Cette partie sera implémentée dans l'étape 007 (implementer_services_integration_apis_externes)
-        itineraryGeneratorService.generateItineraries(savedSearch);
-
-        return savedSearch;
     }
     
     /**
-     * Récupère tous les itinéraires correspondant à une recherche
+     * Les codes IATA sont manipulés en majuscules, quelle que soit la saisie du client
      */
-    public List<Itinerary> getItinerariesForSearch(String searchId) {
+    private static String iataCode(String code) {
+        return code != null ? code.trim().toUpperCase(Locale.ROOT) : null;
+    }
+    
+    private static List<String> iataCodes(List<String> codes) {
+        return codes != null ? codes.stream().map(ItineraryService::iataCode).collect(Collectors.toList()) : null;
+    }
+    
+    /**
+     * Réserve une place parmi les recherches actives puis sauvegarde la recherche.
+     * Au-delà de la limite, la recherche est refusée sans être enregistrée.
+     * La place réservée doit être libérée à la fin de la génération ; elle l'est ici si la sauvegarde
+     * échoue ou est annulée avant d'avoir rendu la recherche.
+     */
+    private Mono<ItinerarySearch> saveAndAdmit(ItinerarySearch search) {
+        return Mono.defer(() -> {
+            if (activeSearches.incrementAndGet() > maxActiveSearches) {
+                activeSearches.decrementAndGet();
+                log.warn("Trop de recherches en cours ({}), recherche depuis {} refusée", maxActiveSearches, search.getOrigin());
+                return Mono.error(new SearchCapacityExceededException("Search queue is full"));
+            }
+            
+            AtomicBoolean handedOver = new AtomicBoolean();
+            return itinerarySearchRepository.save(search)
+                    .doOnNext(savedSearch -> handedOver.set(true))
+                    .doFinally(signal -> {
+                        if (!handedOver.get()) {
+                            activeSearches.decrementAndGet();
+                        }
+                    });
+        });
+    }
+    
+    /**
+     * Nombre de recherches en cours de génération
+     */
+    public int getActiveSearchCount() {
+        return activeSearches.get();
+    }
+    
+    /**
+     * Récupère l'état d'avancement d'une recherche
+     */
+    public Mono<ItinerarySearch> getSearchStatus(String searchId) {
+        log.info("Récupération de l'état de la recherche {}", searchId);
+        return itinerarySearchRepository.findById(searchId)
+                .map(searchProgressTracker::withLiveProgress);
+    }
+    
+    /**
+     * Récupère une page des itinéraires d'une recherche, du moins cher au plus cher
+     */
+    public Mono<ItineraryPage> getItinerariesForSearch(String searchId, String cursor, Integer limit, boolean withDetails) {
         log.info("Récupération des itinéraires pour la recherche {}", searchId);
-        return itineraryRepository.findBySearchId(searchId);
+        int pageSize = pageSize(limit);
+        ItineraryCursor after = decodeCursor(cursor);
+        
+        // Une recherche servie par le cache lit les itinéraires de sa recherche source, dans son propre budget
+        return itinerarySearchRepository.findById(searchId).flatMap(search -> toPage(search.getResultSourceSearchId() == null
+                ? itineraryRepository.findPageBySearchId(searchId, after, pageSize + 1, withDetails)
+                : itineraryRepository.findPageBySearchIdWithinBudget(search.getResultSourceSearchId(), search.getBudget(),
+                        after, pageSize + 1, withDetails), pageSize));
     }
     
     /**
      * Récupère un itinéraire par son ID
      */
-    public Optional<Itinerary> getItineraryById(String id) {
+    public Mono<Itinerary> getItineraryById(String id) {
         log.info("Récupération de l'itinéraire {}", id);
         return itineraryRepository.findById(id);
     }
     
     /**
-     * Récupère les itinéraires les moins chers
+     * Récupère les itinéraires les moins chers, depuis le classement tenu en mémoire
      */
-    public List<Itinerary> getCheapestItineraries() {
-        log.info("Récupération des 5 itinéraires les moins chers");
-        return itineraryRepository.findTop5ByOrderByTotalPriceAsc();
+    public Mono<List<Itinerary>> getCheapestItineraries() {
+        log.debug("Récupération des {} itinéraires les moins chers", cheapestItineraryLeaderboard.getDepth());
+        return cheapestItineraryLeaderboard.top();
     }
     
     /**
-     * Récupère les itinéraires dans une fourchette de prix
+     * Récupère une page des itinéraires dont le prix ne dépasse pas le budget
      */
-    public List<Itinerary> getItinerariesWithinBudget(double maxBudget) {
+    public Mono<ItineraryPage> getItinerariesWithinBudget(double maxBudget, String cursor, Integer limit, boolean withDetails) {
         log.info("Récupération des itinéraires avec un budget maximum de {}", maxBudget);
-        return itineraryRepository.findByTotalPriceLessThanEqual(maxBudget);
+        int pageSize = pageSize(limit);
+        return toPage(itineraryRepository.findPageWithinBudget(maxBudget, decodeCursor(cursor), pageSize + 1, withDetails), pageSize);
+    }
+
+    private int pageSize(Integer limit) {
+        if (limit == null) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        if (limit <= 0) {
+            throw new IllegalArgumentException("La taille de page doit être positive");
+        }
+        return Math.min(limit, MAX_PAGE_SIZE);
+    }
+
+    private ItineraryCursor decodeCursor(String cursor) {
+        return cursor == null || cursor.isEmpty() ? null : ItineraryCursor.decode(cursor);
+    }
+
+    /**
+     * Une ligne de plus que la page est lue : sa présence indique qu'une page suivante existe,
+     * dont le curseur est la position du dernier élément retourné
+     */
+    private Mono<ItineraryPage> toPage(Flux<Itinerary> rows, int pageSize) {
+        return rows.collectList().map(itineraries -> {
+            if (itineraries.size() <= pageSize) {
+                return new ItineraryPage(itineraries, null);
+            }
+
+            List<Itinerary> items = itineraries.subList(0, pageSize);
+            Itinerary last = items.get(pageSize - 1);
+            return new ItineraryPage(items, new ItineraryCursor(last.getTotalPrice(), last.getId()).encode());
+        });
     }
 }
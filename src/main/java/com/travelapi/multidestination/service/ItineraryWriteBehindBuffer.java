@@ -0,0 +1,306 @@
+package com.travelapi.multidestination.service;
+
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.bulk.BulkWriteError;
+import com.travelapi.multidestination.model.Itinerary;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Persistance différée (write-behind) des itinéraires générés.
+ * Les itinéraires de toutes les recherches sont regroupés puis écrits par insertions
+ * en masse non ordonnées, dès qu'un lot est plein ou que l'intervalle de vidage est écoulé ;
+ * un document refusé ne fait échouer que l'écriture (la recherche) qui le contenait.
+ * Le tampon est borné : au-delà de sa capacité, les écritures attendent qu'un vidage
+ * libère de la place. À l'arrêt, tout ce qui a été accepté est écrit avant de rendre la main.
+ */
+@Component
+@Slf4j
+public class ItineraryWriteBehindBuffer {
+
+    private static final Duration SHUTDOWN_TIMEOUT = Duration.ofSeconds(30);
+
+    private final ReactiveMongoTemplate mongoTemplate;
+    private final int batchSize;
+    private final int capacity;
+    private final Duration flushInterval;
+
+    private final Object lock = new Object();
+
+    // Écritures acceptées, pas encore envoyées
+    private final Deque<PendingWrite> buffered = new ArrayDeque<>();
+    // Écritures en attente de place dans le tampon
+    private final Deque<PendingWrite> waiting = new ArrayDeque<>();
+    private int bufferedCount;
+    // Itinéraires acceptés et pas encore confirmés (en tampon ou en cours d'envoi)
+    private int admittedCount;
+    private boolean flushing;
+    private boolean closed;
+
+    private final LongAdder flushedBatches = new LongAdder();
+    private final LongAdder flushedItineraries = new LongAdder();
+    private final LongAdder failedItineraries = new LongAdder();
+
+    private Disposable flushTimer;
+
+    public ItineraryWriteBehindBuffer(ReactiveMongoTemplate mongoTemplate,
+                                      @Value("${itinerary.persistence.batch-size:500}") int batchSize,
+                                      @Value("${itinerary.persistence.buffer-capacity:5000}") int capacity,
+                                      @Value("${itinerary.persistence.flush-interval-ms:200}") long flushIntervalMillis) {
+        this.mongoTemplate = mongoTemplate;
+        this.batchSize = batchSize;
+        this.capacity = capacity;
+        this.flushInterval = Duration.ofMillis(flushIntervalMillis);
+    }
+
+    @PostConstruct
+    public void start() {
+        flushTimer = Flux.interval(flushInterval).subscribe(tick -> flush(true));
+    }
+
+    /**
+     * Confie des itinéraires au tampon.
+     * Le Mono retourné se termine lorsque tous ont été écrits en base ;
+     * si le tampon est plein, l'acceptation elle-même est différée.
+     */
+    public Mono<Void> write(List<Itinerary> itineraries) {
+        if (itineraries.isEmpty()) {
+            return Mono.empty();
+        }
+
+        return Mono.defer(() -> {
+            PendingWrite write = new PendingWrite(new ArrayList<>(itineraries));
+
+            synchronized (lock) {
+                if (closed) {
+                    return Mono.error(new IllegalStateException("Tampon d'écriture des itinéraires fermé"));
+                }
+
+                // Respecter l'ordre d'arrivée : une écriture ne double pas celles qui attendent déjà
+                if (waiting.isEmpty() && hasRoomFor(write)) {
+                    admit(write);
+                } else {
+                    waiting.add(write);
+                    log.debug("Tampon d'écriture plein, {} itinéraires en attente de place", write.itineraries.size());
+                }
+            }
+
+            flush(false);
+            return write.done.asMono();
+        });
+    }
+
+    public Stats getStats() {
+        synchronized (lock) {
+            return new Stats(flushedBatches.sum(), flushedItineraries.sum(), failedItineraries.sum(),
+                    bufferedCount, admittedCount, waiting.size());
+        }
+    }
+
+    /**
+     * Envoie un lot si aucun envoi n'est en cours et qu'un seuil est atteint :
+     * taille de lot, ou à chaque intervalle ({@code force}) dès qu'il reste quelque chose
+     */
+    private void flush(boolean force) {
+        List<PendingWrite> batch = new ArrayList<>();
+        List<Itinerary> documents = new ArrayList<>();
+
+        synchronized (lock) {
+            if (flushing || buffered.isEmpty() || (!force && bufferedCount < batchSize)) {
+                return;
+            }
+
+            while (!buffered.isEmpty() && (documents.isEmpty() || documents.size() + buffered.peek().itineraries.size() <= batchSize)) {
+                PendingWrite write = buffered.poll();
+                batch.add(write);
+                documents.addAll(write.itineraries);
+            }
+
+            bufferedCount -= documents.size();
+            flushing = true;
+        }
+
+        mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Itinerary.class)
+                .insert(documents)
+                .execute()
+                .subscribe(
+                        result -> {
+                            flushedBatches.increment();
+                            flushedItineraries.add(documents.size());
+                            log.debug("Lot de {} itinéraires écrit ({} écritures regroupées)", documents.size(), batch.size());
+                            batch.forEach(write -> write.done.tryEmitEmpty());
+                            onFlushed(documents.size());
+                        },
+                        error -> {
+                            onBatchFailed(batch, documents.size(), error);
+                            onFlushed(documents.size());
+                        });
+    }
+
+    /**
+     * Insertions non ordonnées : lorsque le serveur rapporte les documents refusés, tous les autres
+     * ont été écrits et seules les écritures qui contenaient un document refusé échouent
+     */
+    private void onBatchFailed(List<PendingWrite> batch, int documentCount, Throwable error) {
+        MongoBulkWriteException bulkError = bulkWriteExceptionOf(error);
+
+        if (bulkError == null || bulkError.getWriteErrors().isEmpty() || bulkError.getWriteConcernError() != null) {
+            failedItineraries.add(documentCount);
+            log.error("Échec de l'écriture d'un lot de {} itinéraires", documentCount, error);
+            batch.forEach(write -> write.done.tryEmitError(error));
+            return;
+        }
+
+        BitSet failedIndexes = new BitSet(documentCount);
+        for (BulkWriteError writeError : bulkError.getWriteErrors()) {
+            failedIndexes.set(writeError.getIndex());
+        }
+
+        int failedWrites = 0;
+        int offset = 0;
+        for (PendingWrite write : batch) {
+            int end = offset + write.itineraries.size();
+            int firstFailed = failedIndexes.nextSetBit(offset);
+
+            if (firstFailed >= 0 && firstFailed < end) {
+                failedWrites++;
+                write.done.tryEmitError(error);
+            } else {
+                write.done.tryEmitEmpty();
+            }
+            offset = end;
+        }
+
+        int failedCount = failedIndexes.cardinality();
+        flushedBatches.increment();
+        flushedItineraries.add(documentCount - failedCount);
+        failedItineraries.add(failedCount);
+        log.error("Lot de {} itinéraires écrit partiellement: {} refusés, {} écritures sur {} en échec",
+                documentCount, failedCount, failedWrites, batch.size(), error);
+    }
+
+    private static MongoBulkWriteException bulkWriteExceptionOf(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof MongoBulkWriteException) {
+                return (MongoBulkWriteException) cause;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Libère la place du lot envoyé, admet les écritures en attente puis enchaîne
+     * sur le lot suivant s'il est déjà plein (ou si le tampon est en cours de fermeture)
+     */
+    private void onFlushed(int flushedCount) {
+        boolean drainAll;
+
+        synchronized (lock) {
+            admittedCount -= flushedCount;
+            flushing = false;
+
+            while (!waiting.isEmpty() && hasRoomFor(waiting.peek())) {
+                admit(waiting.poll());
+            }
+
+            drainAll = closed;
+            lock.notifyAll();
+        }
+
+        flush(drainAll);
+    }
+
+    private boolean hasRoomFor(PendingWrite write) {
+        // Une écriture plus grande que le tampon est acceptée seule
+        return admittedCount == 0 || admittedCount + write.itineraries.size() <= capacity;
+    }
+
+    private void admit(PendingWrite write) {
+        buffered.add(write);
+        bufferedCount += write.itineraries.size();
+        admittedCount += write.itineraries.size();
+    }
+
+    /**
+     * Écrit tout ce qui a été accepté ou mis en attente avant l'arrêt
+     */
+    @PreDestroy
+    public void shutdown() {
+        if (flushTimer != null) {
+            flushTimer.dispose();
+        }
+
+        long deadline = System.nanoTime() + SHUTDOWN_TIMEOUT.toNanos();
+
+        synchronized (lock) {
+            closed = true;
+        }
+
+        while (true) {
+            flush(true);
+
+            synchronized (lock) {
+                if (admittedCount == 0 && waiting.isEmpty()) {
+                    log.info("Tampon d'écriture des itinéraires vidé");
+                    return;
+                }
+
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    log.warn("Arrêt avant l'écriture de {} itinéraires acceptés et {} écritures en attente",
+                            admittedCount, waiting.size());
+                    return;
+                }
+
+                try {
+                    lock.wait(Math.max(1, Math.min(remaining / 1_000_000, flushInterval.toMillis())));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private static final class PendingWrite {
+        private final List<Itinerary> itineraries;
+        private final Sinks.Empty<Void> done = Sinks.empty();
+
+        private PendingWrite(List<Itinerary> itineraries) {
+            this.itineraries = itineraries;
+        }
+    }
+
+    /**
+     * Instantané des statistiques du tampon d'écriture
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class Stats {
+        private final long flushedBatches;
+        private final long flushedItineraries;
+        private final long failedItineraries;
+        private final int bufferedCount;
+        private final int admittedCount;
+        private final int waitingWrites;
+    }
+}
@@ -0,0 +1,39 @@
+package com.travelapi.multidestination.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Points de départ acceptés par les recherches, enregistrés une seule fois au démarrage dans
+ * {@link AirportRegistry}. Les villes du catalogue sont aussi des points de départ valides.
+ * Le registre n'est ensuite plus modifié par les requêtes : un code inconnu est refusé,
+ * il ne fait pas grossir le registre ni les matrices de tarifs dimensionnées sur sa taille.
+ */
+@Component
+@Slf4j
+public class OriginCatalog {
+
+    private final AirportRegistry airportRegistry;
+
+    public OriginCatalog(AirportRegistry airportRegistry, CityCatalog cityCatalog,
+                         @Value("${catalog.origins:LON,CDG,ORY,LYS,MRS,NCE,TLS,BOD,NTE}") List<String> origins) {
+        this.airportRegistry = airportRegistry;
+
+        for (String origin : origins) {
+            airportRegistry.idOf(origin.trim().toUpperCase(Locale.ROOT));
+        }
+        log.info("Points de départ enregistrés: {} configurés, {} villes au catalogue",
+                origins.size(), cityCatalog.cities().size());
+    }
+
+    /**
+     * Identifiant du point de départ, -1 s'il n'est ni configuré ni au catalogue
+     */
+    public int find(String code) {
+        return airportRegistry.find(code);
+    }
+}
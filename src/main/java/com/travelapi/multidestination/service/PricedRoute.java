@@ -0,0 +1,60 @@
+package com.travelapi.multidestination.service;
+
+import com.travelapi.multidestination.model.FlightLeg;
+import com.travelapi.multidestination.model.Itinerary;
+import com.travelapi.multidestination.model.ItinerarySearch;
+import lombok.AccessLevel;
+import lombok.Getter;
+
+/**
+ * Candidat tarifé, tel qu'il est classé : aéroports dans l'ordre de visite (identifiants de
+ * {@link AirportRegistry}), séjours, jour de départ de chaque segment, segments et prix total.
+ * Les détails de présentation (villes, météo, conseils) ne sont construits que pour les candidats
+ * finalement retenus, par {@link ItineraryAssembler} ; l'itinéraire construit est conservé
+ * pour que chaque lecteur (diffusion en continu, résultat final) reçoive le même.
+ */
+@Getter(AccessLevel.PACKAGE)
+final class PricedRoute {
+
+    private final int[] airportIds;
+    private final int[] stays;
+    private final int[] legDays;
+    private final FlightLeg[] legs;
+    private final double flightCost;
+    private final int totalStayDays;
+    private final double totalPrice;
+
+    @Getter(AccessLevel.NONE)
+    private Itinerary itinerary;
+
+    PricedRoute(int[] airportIds, int[] stays, int[] legDays, FlightLeg[] legs, double dailyCost) {
+        this.airportIds = airportIds;
+        this.stays = stays;
+        this.legDays = legDays;
+        this.legs = legs;
+
+        double flights = 0;
+        for (FlightLeg leg : legs) {
+            flights += leg.getPrice();
+        }
+
+        int days = 0;
+        for (int stay : stays) {
+            days += stay;
+        }
+
+        this.flightCost = flights;
+        this.totalStayDays = days;
+        this.totalPrice = flights + days * dailyCost;
+    }
+
+    /**
+     * Itinéraire complet, construit au premier appel
+     */
+    synchronized Itinerary toItinerary(ItineraryAssembler assembler, ItinerarySearch search) {
+        if (itinerary == null) {
+            itinerary = assembler.assemble(this, search);
+        }
+        return itinerary;
+    }
+}
@@ -0,0 +1,211 @@
+package com.travelapi.multidestination.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.Arrays;
+
+/**
+ * Recherche l'ordre de visite le moins cher d'un ensemble de villes pour un circuit
+ * origine → villes → origine.
+ * Le coût d'un segment dépend de son rang dans le circuit, car la date de départ de chaque
+ * segment est fixée par la distribution des jours : le segment de rang p part toujours
+ * à la même date, quelle que soit la ville visitée.
+ * Jusqu'à {@link #MAX_EXACT_CITIES} villes, l'ordre optimal est calculé par programmation
+ * dynamique sur les sous-ensembles (Held–Karp) ; au-delà, une heuristique plus proche voisin
+ * suivie d'améliorations 2-opt est utilisée.
+ * Un segment non tarifable est représenté par {@link Double#POSITIVE_INFINITY}.
+ */
+public final class RouteOptimizer {
+
+    public static final int MAX_EXACT_CITIES = 12;
+
+    private RouteOptimizer() {
+    }
+
+    /**
+     * @param outbound  outbound[j] : origine → ville j (segment de rang 0)
+     * @param transfers transfers[p][i * k + j] : ville i → ville j pour le segment de rang p (1 ≤ p < k)
+     * @param inbound   inbound[j] : ville j → origine (dernier segment)
+     * @return le meilleur circuit trouvé, ou null si aucun ordre n'est entièrement tarifable
+     */
+    public static Route optimize(double[] outbound, double[][] transfers, double[] inbound) {
+        int k = outbound.length;
+
+        if (k == 0) {
+            return null;
+        }
+
+        Route route = k <= MAX_EXACT_CITIES
+                ? heldKarp(outbound, transfers, inbound)
+                : nearestNeighbourWithTwoOpt(outbound, transfers, inbound);
+
+        return route != null && route.getCost() < Double.POSITIVE_INFINITY ? route : null;
+    }
+
+    /**
+     * Coût d'un circuit donné
+     */
+    public static double cost(int[] order, double[] outbound, double[][] transfers, double[] inbound) {
+        int k = order.length;
+        double total = outbound[order[0]];
+
+        for (int p = 1; p < k; p++) {
+            total += transfers[p][order[p - 1] * k + order[p]];
+        }
+
+        return total + inbound[order[k - 1]];
+    }
+
+    /**
+     * dp[mask][j] : coût minimal pour avoir visité les villes de mask en terminant par j.
+     * Le segment qui mène à la ville suivante a pour rang le nombre de villes déjà visitées.
+     */
+    private static Route heldKarp(double[] outbound, double[][] transfers, double[] inbound) {
+        int k = outbound.length;
+        int full = (1 << k) - 1;
+
+        double[] dp = new double[(1 << k) * k];
+        int[] parent = new int[(1 << k) * k];
+        Arrays.fill(dp, Double.POSITIVE_INFINITY);
+
+        for (int j = 0; j < k; j++) {
+            dp[(1 << j) * k + j] = outbound[j];
+            parent[(1 << j) * k + j] = -1;
+        }
+
+        for (int mask = 1; mask <= full; mask++) {
+            int rank = Integer.bitCount(mask);
+            if (rank == k) {
+                continue;
+            }
+
+            double[] legCosts = transfers[rank];
+
+            for (int last = 0; last < k; last++) {
+                double current = dp[mask * k + last];
+                if (current == Double.POSITIVE_INFINITY) {
+                    continue;
+                }
+
+                for (int next = 0; next < k; next++) {
+                    if ((mask & (1 << next)) != 0) {
+                        continue;
+                    }
+
+                    double candidate = current + legCosts[last * k + next];
+                    int target = (mask | (1 << next)) * k + next;
+
+                    if (candidate < dp[target]) {
+                        dp[target] = candidate;
+                        parent[target] = last;
+                    }
+                }
+            }
+        }
+
+        double bestCost = Double.POSITIVE_INFINITY;
+        int bestLast = -1;
+
+        for (int last = 0; last < k; last++) {
+            double candidate = dp[full * k + last] + inbound[last];
+            if (candidate < bestCost) {
+                bestCost = candidate;
+                bestLast = last;
+            }
+        }
+
+        if (bestLast < 0) {
+            return null;
+        }
+
+        // Reconstituer l'ordre en remontant les parents
+        int[] order = new int[k];
+        int mask = full;
+        int city = bestLast;
+
+        for (int position = k - 1; position >= 0; position--) {
+            order[position] = city;
+            int previous = parent[mask * k + city];
+            mask &= ~(1 << city);
+            city = previous;
+        }
+
+        return new Route(order, bestCost);
+    }
+
+    /**
+     * Construit un circuit glouton (segment le moins cher à chaque rang) puis l'améliore
+     * par inversions 2-opt tant qu'une inversion réduit le coût ; visible du paquet pour être
+     * comparée à l'ordre exact sur de petits circuits
+     */
+    static Route nearestNeighbourWithTwoOpt(double[] outbound, double[][] transfers, double[] inbound) {
+        int k = outbound.length;
+        int[] order = new int[k];
+        boolean[] visited = new boolean[k];
+
+        for (int position = 0; position < k; position++) {
+            int best = -1;
+            double bestCost = Double.POSITIVE_INFINITY;
+
+            for (int candidate = 0; candidate < k; candidate++) {
+                if (visited[candidate]) {
+                    continue;
+                }
+
+                double legCost = position == 0
+                        ? outbound[candidate]
+                        : transfers[position][order[position - 1] * k + candidate];
+
+                if (best < 0 || legCost < bestCost) {
+                    best = candidate;
+                    bestCost = legCost;
+                }
+            }
+
+            order[position] = best;
+            visited[best] = true;
+        }
+
+        double cost = cost(order, outbound, transfers, inbound);
+        boolean improved = true;
+
+        while (improved) {
+            improved = false;
+
+            for (int i = 0; i < k - 1; i++) {
+                for (int j = i + 1; j < k; j++) {
+                    reverse(order, i, j);
+                    double candidateCost = cost(order, outbound, transfers, inbound);
+
+                    if (candidateCost < cost) {
+                        cost = candidateCost;
+                        improved = true;
+                    } else {
+                        reverse(order, i, j);
+                    }
+                }
+            }
+        }
+
+        return new Route(order, cost);
+    }
+
+    private static void reverse(int[] order, int from, int to) {
+        while (from < to) {
+            int tmp = order[from];
+            order[from++] = order[to];
+            order[to--] = tmp;
+        }
+    }
+
+    /**
+     * Ordre de visite (indices des villes) et coût total des segments
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class Route {
+        private final int[] order;
+        private final double cost;
+    }
+}
@@ -0,0 +1,49 @@
+package com.travelapi.multidestination.service;
+
+import com.travelapi.multidestination.model.ItinerarySearch;
+
+import java.util.Collection;
+import java.util.Locale;
+import java.util.TreeSet;
+
+/**
+ * Empreinte canonique des critères d'une recherche, hors budget.
+ * Deux recherches de même empreinte explorent exactement les mêmes combinaisons de villes ;
+ * seul le budget décide ensuite lesquelles sont retenues.
+ * Les listes de préférences sont dédoublonnées, triées et normalisées en casse.
+ */
+public final class SearchFingerprint {
+
+    private SearchFingerprint() {
+    }
+
+    public static String of(ItinerarySearch search) {
+        return new StringBuilder()
+                .append(normalize(search.getOrigin())).append('|')
+                .append(search.getDepartureDate()).append('|')
+                .append(search.getReturnDate()).append('|')
+                .append(search.getNumberOfCities()).append('|')
+                .append(search.getMinDaysPerCity()).append('|')
+                .append(search.getMaxDaysPerCity()).append('|')
+                .append(canonical(search.getContinentPreferences())).append('|')
+                .append(canonical(search.getInterestPreferences())).append('|')
+                .append(canonical(search.getExcludedDestinations()))
+                .toString();
+    }
+
+    private static String canonical(Collection<String> values) {
+        TreeSet<String> normalized = new TreeSet<>();
+        if (values != null) {
+            for (String value : values) {
+                if (value != null && !value.trim().isEmpty()) {
+                    normalized.add(normalize(value));
+                }
+            }
+        }
+        return String.join(",", normalized);
+    }
+
+    private static String normalize(String value) {
+        return value == null ? "" : value.trim().toUpperCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,227 @@
+package com.travelapi.multidestination.service;
+
+import com.travelapi.multidestination.model.ItinerarySearch;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.tracing.Span;
+import io.micrometer.tracing.Tracer;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Instrumentation du pipeline de recherche : durée de chaque étape, devenir des candidats
+ * et latence des appels à l'API de vols.
+ * Chaque recherche est suivie par un {@link SearchTrace} : une trace dont les étapes
+ * (filtrage, tarification par fenêtre, évaluation par fenêtre, écriture) sont des spans enfants.
+ * Les étapes exécutées candidat par candidat (combinaisons, répartition des jours, classement)
+ * sont trop fines pour un span chacune : leur temps est cumulé sur la recherche, puis enregistré
+ * dans leur timer et sur le span de la recherche.
+ */
+public class SearchPipelineMetrics {
+
+    public enum Stage {
+        DESTINATION_FILTERING("destination-filtering"),
+        COMBINATION_GENERATION("combination-generation"),
+        DISTRIBUTION_GENERATION("distribution-generation"),
+        FLIGHT_PRICING("flight-pricing"),
+        RANKING("ranking"),
+        ENRICHMENT("enrichment"),
+        PERSISTENCE("persistence");
+
+        private final String tagValue;
+
+        Stage(String tagValue) {
+            this.tagValue = tagValue;
+        }
+
+        public String getTagValue() {
+            return tagValue;
+        }
+    }
+
+    public enum Rejection {
+        OVER_BUDGET("over-budget"),
+        MISSING_LEGS("missing-legs"),
+        LEG_BUDGET("leg-budget"),
+        OUTRANKED("outranked");
+
+        private final String tagValue;
+
+        Rejection(String tagValue) {
+            this.tagValue = tagValue;
+        }
+    }
+
+    private final Tracer tracer;
+    private final Map<Stage, Timer> stageTimers = new EnumMap<>(Stage.class);
+    private final Map<Rejection, Counter> rejectedCandidates = new EnumMap<>(Rejection.class);
+    private final Counter generatedCandidates;
+    private final Counter pricedCandidates;
+    private final Timer amadeusSuccesses;
+    private final Timer amadeusFailures;
+
+    public SearchPipelineMetrics(MeterRegistry registry, Tracer tracer) {
+        this.tracer = tracer;
+
+        for (Stage stage : Stage.values()) {
+            stageTimers.put(stage, Timer.builder("itinerary.search.stage")
+                    .description("Temps passé dans une étape de la génération, par recherche")
+                    .tag("stage", stage.tagValue)
+                    .register(registry));
+        }
+
+        for (Rejection rejection : Rejection.values()) {
+            rejectedCandidates.put(rejection, Counter.builder("itinerary.search.candidates.rejected")
+                    .description("Candidats écartés avant d'entrer dans le classement")
+                    .tag("reason", rejection.tagValue)
+                    .register(registry));
+        }
+
+        this.generatedCandidates = Counter.builder("itinerary.search.candidates.generated")
+                .description("Combinaisons de villes produites pour évaluation")
+                .register(registry);
+        this.pricedCandidates = Counter.builder("itinerary.search.candidates.priced")
+                .description("Candidats dont tous les segments ont pu être tarifés")
+                .register(registry);
+        this.amadeusSuccesses = amadeusTimer(registry, "success");
+        this.amadeusFailures = amadeusTimer(registry, "error");
+    }
+
+    private static Timer amadeusTimer(MeterRegistry registry, String outcome) {
+        return Timer.builder("amadeus.flight.request")
+                .description("Latence d'un échange HTTP de tarification avec l'API Amadeus, par tentative")
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+
+    /**
+     * Ouvre la trace d'une recherche ; elle doit être close par {@link SearchTrace#finish}
+     */
+    public SearchTrace startSearch(ItinerarySearch search) {
+        Span span = tracer.nextSpan()
+                .name("itinerary.search")
+                .tag("search.id", String.valueOf(search.getId()))
+                .tag("search.cities", search.getNumberOfCities())
+                .start();
+        return new SearchTrace(span);
+    }
+
+    /**
+     * Mesure la latence d'un échange HTTP avec l'API de vols, de l'abonnement à sa fin.
+     * À appliquer à l'appel protégé lui-même : chaque tentative est mesurée, sans l'obtention
+     * du token ni l'attente du limiteur et de la cloison ; le mode simulé n'est pas mesuré.
+     */
+    public <T> Mono<T> timeAmadeusRequest(Mono<T> request) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return request
+                    .doOnSuccess(result -> amadeusSuccesses.record(System.nanoTime() - start, TimeUnit.NANOSECONDS))
+                    .doOnError(error -> amadeusFailures.record(System.nanoTime() - start, TimeUnit.NANOSECONDS));
+        });
+    }
+
+    public void candidatesGenerated(int count) {
+        generatedCandidates.increment(count);
+    }
+
+    public void candidatePriced() {
+        pricedCandidates.increment();
+    }
+
+    public void candidateRejected(Rejection rejection) {
+        rejectedCandidates.get(rejection).increment();
+    }
+
+    /**
+     * Suivi d'une recherche : span racine et temps cumulé par étape.
+     * Les étapes peuvent être mesurées depuis plusieurs threads à la fois.
+     */
+    public final class SearchTrace {
+
+        private final Span span;
+        private final Map<Stage, LongAdder> stageNanos = new EnumMap<>(Stage.class);
+
+        private SearchTrace(Span span) {
+            this.span = span;
+            for (Stage stage : Stage.values()) {
+                stageNanos.put(stage, new LongAdder());
+            }
+        }
+
+        /**
+         * Ajoute une durée au cumul d'une étape
+         */
+        public void record(Stage stage, long nanos) {
+            stageNanos.get(stage).add(nanos);
+        }
+
+        /**
+         * Exécute une étape synchrone dans son propre span
+         */
+        public <T> T inSpan(Stage stage, Supplier<T> work) {
+            Span stageSpan = tracer.nextSpan(span).name(stage.tagValue).start();
+            long start = System.nanoTime();
+
+            try {
+                return work.get();
+            } catch (RuntimeException e) {
+                stageSpan.error(e);
+                throw e;
+            } finally {
+                record(stage, System.nanoTime() - start);
+                stageSpan.end();
+            }
+        }
+
+        /**
+         * Enveloppe une étape asynchrone dans un span, de l'abonnement à sa fin ;
+         * sa durée est ajoutée au cumul de l'étape si elle en a une
+         */
+        public <T> Mono<T> inSpan(String name, Stage stage, Mono<T> work) {
+            return Mono.defer(() -> {
+                Span stageSpan = tracer.nextSpan(span).name(name).start();
+                long start = System.nanoTime();
+
+                return work
+                        .doOnError(stageSpan::error)
+                        .doFinally(signal -> {
+                            if (stage != null) {
+                                record(stage, System.nanoTime() - start);
+                            }
+                            if (signal == SignalType.CANCEL) {
+                                stageSpan.tag("cancelled", "true");
+                            }
+                            stageSpan.end();
+                        });
+            });
+        }
+
+        /**
+         * Enregistre le temps de chaque étape exécutée et ferme le span de la recherche
+         */
+        public void finish(SignalType signal, Throwable error) {
+            stageNanos.forEach((stage, nanos) -> {
+                long total = nanos.sum();
+                if (total > 0) {
+                    stageTimers.get(stage).record(total, TimeUnit.NANOSECONDS);
+                    span.tag("stage." + stage.tagValue + ".ms", TimeUnit.NANOSECONDS.toMillis(total));
+                }
+            });
+
+            if (error != null) {
+                span.error(error);
+            }
+            if (signal == SignalType.CANCEL) {
+                span.tag("cancelled", "true");
+            }
+            span.end();
+        }
+    }
+}
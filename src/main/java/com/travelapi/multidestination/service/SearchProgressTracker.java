@@ -0,0 +1,83 @@
+package com.travelapi.multidestination.service;
+
+import com.travelapi.multidestination.model.ItinerarySearch;
+import com.travelapi.multidestination.model.SearchStatus;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Suit l'état des recherches en cours de génération.
+ * Les transitions d'état sont persistées ; la progression des recherches actives
+ * est conservée en mémoire pour éviter une écriture par candidat évalué.
+ * Les écritures sont différées : elles ont lieu à la souscription du Mono retourné.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SearchProgressTracker {
+
+    private final ReactiveMongoTemplate mongoTemplate;
+
+    private final Map<String, AtomicInteger> activeSearches = new ConcurrentHashMap<>();
+
+    public Mono<Void> markRunning(String searchId) {
+        activeSearches.put(searchId, new AtomicInteger());
+        return updateStatus(searchId, Update.update("status", SearchStatus.RUNNING));
+    }
+
+    public void incrementProgress(String searchId) {
+        AtomicInteger progress = activeSearches.get(searchId);
+        if (progress != null) {
+            progress.incrementAndGet();
+        }
+    }
+
+    public Mono<Void> markDone(String searchId, int resultCount) {
+        return updateStatus(searchId, Update.update("status", SearchStatus.DONE)
+                .set("progress", releaseProgress(searchId))
+                .set("resultCount", resultCount));
+    }
+
+    public Mono<Void> markFailed(String searchId, String errorMessage) {
+        return updateStatus(searchId, Update.update("status", SearchStatus.FAILED)
+                .set("progress", releaseProgress(searchId))
+                .set("errorMessage", errorMessage));
+    }
+
+    public Mono<Void> markCancelled(String searchId) {
+        return updateStatus(searchId, Update.update("status", SearchStatus.CANCELLED)
+                .set("progress", releaseProgress(searchId)));
+    }
+
+    /**
+     * Complète une recherche lue en base avec la progression en mémoire si elle est en cours
+     */
+    public ItinerarySearch withLiveProgress(ItinerarySearch search) {
+        AtomicInteger progress = activeSearches.get(search.getId());
+        if (progress != null) {
+            search.setProgress(progress.get());
+        }
+        return search;
+    }
+
+    private int releaseProgress(String searchId) {
+        AtomicInteger progress = activeSearches.remove(searchId);
+        return progress != null ? progress.get() : 0;
+    }
+
+    private Mono<Void> updateStatus(String searchId, Update update) {
+        return mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(searchId)), update, ItinerarySearch.class)
+                .doOnSubscribe(subscription -> log.debug("Mise à jour de l'état de la recherche {}: {}", searchId, update))
+                .then();
+    }
+}
@@ -0,0 +1,170 @@
+package com.travelapi.multidestination.service;
+
+import com.travelapi.multidestination.model.Itinerary;
+import com.travelapi.multidestination.model.ItinerarySearch;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cache des classements produits par les recherches récentes, indexé par {@link SearchFingerprint}.
+ * Une nouvelle recherche équivalente réutilise les itinéraires déjà écrits de la recherche source
+ * au lieu de relancer la génération.
+ * Le budget ne fait pas partie de l'empreinte : le classement d'un budget B contient les meilleurs
+ * itinéraires sous tout budget inférieur, qu'il suffit de filtrer. Un classement complet (toutes
+ * les places occupées) contient en outre les meilleurs itinéraires sous tout budget supérieur.
+ * Les itinéraires retournés sont partagés et ne doivent pas être modifiés.
+ */
+@Component
+public class SearchResultCache {
+
+    private final long ttlNanos;
+    private final int maxSize;
+    private final Map<String, Entry> entries;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder budgetFilteredHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public SearchResultCache(@Value("${itinerary.result-cache.ttl-seconds:600}") long ttlSeconds,
+                             @Value("${itinerary.result-cache.max-size:1000}") int maxSize) {
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+        this.maxSize = maxSize;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                if (size() > SearchResultCache.this.maxSize) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Retourne le classement d'une recherche équivalente récente, restreint au budget de celle-ci,
+     * ou null si aucun classement en cache ne couvre ce budget
+     */
+    public CachedResult find(ItinerarySearch search) {
+        String fingerprint = SearchFingerprint.of(search);
+        double budget = search.getBudget();
+        Entry entry;
+
+        synchronized (entries) {
+            entry = entries.get(fingerprint);
+
+            if (entry != null && entry.expiresAt - System.nanoTime() <= 0) {
+                entries.remove(fingerprint);
+                evictions.increment();
+                entry = null;
+            }
+
+            if (entry == null || !entry.covers(budget)) {
+                misses.increment();
+                return null;
+            }
+        }
+
+        hits.increment();
+        if (budget == entry.budget) {
+            return new CachedResult(entry.sourceSearchId, entry.ranked);
+        }
+
+        budgetFilteredHits.increment();
+        List<Itinerary> withinBudget = new ArrayList<>(entry.ranked.size());
+        for (Itinerary itinerary : entry.ranked) {
+            if (itinerary.getTotalPrice() <= budget) {
+                withinBudget.add(itinerary);
+            }
+        }
+        return new CachedResult(entry.sourceSearchId, Collections.unmodifiableList(withinBudget));
+    }
+
+    /**
+     * Enregistre le classement final d'une recherche, dont les itinéraires sont déjà écrits en base
+     *
+     * @param complete true si le classement a atteint sa capacité
+     */
+    public void put(ItinerarySearch search, List<Itinerary> ranked, boolean complete) {
+        String fingerprint = SearchFingerprint.of(search);
+        Entry entry = new Entry(search.getId(), search.getBudget(), complete,
+                Collections.unmodifiableList(new ArrayList<>(ranked)), System.nanoTime() + ttlNanos);
+
+        synchronized (entries) {
+            // Deux recherches équivalentes ont pu être générées en parallèle : garder le classement le plus large
+            Entry existing = entries.get(fingerprint);
+            if (existing != null && existing.expiresAt - System.nanoTime() > 0
+                    && !complete && existing.covers(entry.budget)) {
+                return;
+            }
+            entries.put(fingerprint, entry);
+        }
+    }
+
+    public Stats getStats() {
+        int size;
+        synchronized (entries) {
+            size = entries.size();
+        }
+        return new Stats(hits.sum(), budgetFilteredHits.sum(), misses.sum(), evictions.sum(), size);
+    }
+
+    private static final class Entry {
+        private final String sourceSearchId;
+        private final double budget;
+        private final boolean complete;
+        private final List<Itinerary> ranked;
+        private final long expiresAt;
+
+        private Entry(String sourceSearchId, double budget, boolean complete, List<Itinerary> ranked, long expiresAt) {
+            this.sourceSearchId = sourceSearchId;
+            this.budget = budget;
+            this.complete = complete;
+            this.ranked = ranked;
+            this.expiresAt = expiresAt;
+        }
+
+        private boolean covers(double requestedBudget) {
+            return requestedBudget <= budget || complete;
+        }
+    }
+
+    /**
+     * Itinéraires réutilisables, du moins cher au plus cher, et recherche qui les a générés
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class CachedResult {
+        private final String sourceSearchId;
+        private final List<Itinerary> itineraries;
+    }
+
+    /**
+     * Instantané des statistiques du cache
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class Stats {
+        private final long hitCount;
+        private final long budgetFilteredHitCount;
+        private final long missCount;
+        private final long evictionCount;
+        private final int size;
+
+        public double getHitRate() {
+            long requests = hitCount + missCount;
+            return requests == 0 ? 0.0 : (double) hitCount / requests;
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.travelapi.multidestination.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.Consumer;
+
+/**
+ * Classement borné des K meilleurs candidats (score le plus bas d'abord).
+ * Les candidats sont acceptés au fil de leur production, éventuellement depuis plusieurs threads ;
+ * seuls les K meilleurs sont conservés dans un tas dont la racine est le pire candidat retenu.
+ * Le score de ce pire candidat sert de seuil d'élagage : un candidat dont le coût
+ * ne peut pas passer sous ce seuil n'a pas besoin d'être construit.
+ * Un observateur optionnel est prévenu, sous le verrou et donc un à la fois,
+ * de chaque candidat qui entre dans le classement.
+ */
+public class TopKCollector<T> {
+
+    private final int capacity;
+    private final PriorityQueue<Entry<T>> heap;
+    private final Consumer<? super T> onAccepted;
+
+    private volatile double threshold = Double.POSITIVE_INFINITY;
+    private long offeredCount;
+
+    public TopKCollector(int capacity) {
+        this(capacity, item -> {
+        });
+    }
+
+    public TopKCollector(int capacity, Consumer<? super T> onAccepted) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("La capacité du classement doit être positive");
+        }
+
+        this.capacity = capacity;
+        this.onAccepted = onAccepted;
+        this.heap = new PriorityQueue<>(capacity, Comparator.comparingDouble((Entry<T> e) -> e.score).reversed());
+    }
+
+    /**
+     * Score en dessous duquel un candidat entre dans le classement.
+     * Vaut {@link Double#POSITIVE_INFINITY} tant que le classement n'est pas plein.
+     * Lecture sans verrou : la valeur peut être légèrement en retard, jamais trop stricte.
+     */
+    public double threshold() {
+        return threshold;
+    }
+
+    /**
+     * Indique si un candidat de ce score serait retenu à l'instant présent
+     */
+    public boolean wouldAccept(double score) {
+        return score < threshold;
+    }
+
+    /**
+     * Propose un candidat ; en cas d'égalité avec le pire retenu, le premier arrivé est conservé
+     *
+     * @return true si le candidat fait partie du classement
+     */
+    public synchronized boolean offer(T item, double score) {
+        offeredCount++;
+
+        if (heap.size() < capacity) {
+            heap.add(new Entry<>(item, score));
+        } else if (score < heap.peek().score) {
+            heap.poll();
+            heap.add(new Entry<>(item, score));
+        } else {
+            return false;
+        }
+
+        if (heap.size() == capacity) {
+            threshold = heap.peek().score;
+        }
+        onAccepted.accept(item);
+        return true;
+    }
+
+    /**
+     * Candidats retenus, du meilleur au moins bon
+     */
+    public synchronized List<T> toSortedList() {
+        List<Entry<T>> entries = new ArrayList<>(heap);
+        entries.sort(Comparator.comparingDouble(e -> e.score));
+
+        List<T> items = new ArrayList<>(entries.size());
+        for (Entry<T> entry : entries) {
+            items.add(entry.item);
+        }
+        return items;
+    }
+
+    public synchronized int size() {
+        return heap.size();
+    }
+
+    /**
+     * Nombre total de candidats proposés, retenus ou non
+     */
+    public synchronized long getOfferedCount() {
+        return offeredCount;
+    }
+
+    private static final class Entry<T> {
+        private final T item;
+        private final double score;
+
+        private Entry(T item, double score) {
+            this.item = item;
+            this.score = score;
+        }
+    }
+}
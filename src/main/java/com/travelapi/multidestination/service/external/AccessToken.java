@@ -0,0 +1,18 @@
+package com.travelapi.multidestination.service.external;
+
+import lombok.Value;
+
+import java.time.Instant;
+
+/**
+ * Jeton d'accès OAuth et sa date d'expiration
+ */
+@Value
+public class AccessToken {
+    String value;
+    Instant expiresAt;
+
+    public boolean isExpired(Instant now) {
+        return !now.isBefore(expiresAt);
+    }
+}
@@ -0,0 +1,9 @@
+package com.travelapi.multidestination.service.external;
+
+/**
+ * Obtient un nouveau jeton d'accès auprès du serveur d'authentification Amadeus
+ */
+public interface AmadeusAuthClient {
+
+    AccessToken requestToken();
+}
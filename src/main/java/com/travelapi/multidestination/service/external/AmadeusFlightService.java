@@ -1,21 +1,27 @@
 package com.travelapi.multidestination.service.external;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.travelapi.multidestination.config.AmadeusHttpClientConfig;
 import com.travelapi.multidestination.model.FlightLeg;
+import com.travelapi.multidestination.service.SearchPipelineMetrics;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
-import org.springframework.web.reactive.function.BodyInserters;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
-import java.time.LocalDate;
 import java.time.LocalTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * Service pour intégrer l'API Amadeus Flight Offers Search
@@ -25,111 +31,230 @@ import java.util.Map;
 @Slf4j
 public class AmadeusFlightService {
 
-    private final WebClient.Builder webClientBuilder;
+    @Qualifier("amadeusWebClient")
+    private final WebClient amadeusWebClient;
+    @Qualifier(AmadeusHttpClientConfig.FLIGHT_OFFERS_UPSTREAM)
+    private final UpstreamGuard flightOffersGuard;
+    private final AmadeusRateLimiter amadeusRateLimiter;
+    private final AmadeusLocationCodes amadeusLocationCodes;
+    private final LegFareCache legFareCache;
+    private final AmadeusTokenManager amadeusTokenManager;
+    private final SearchPipelineMetrics searchPipelineMetrics;
+    private final RequestCoalescer<LegKey, FlightLeg> legRequestCoalescer = new RequestCoalescer<>();
+    private final LongAdder droppedBatches = new LongAdder();
+    private final LongAdder droppedLegs = new LongAdder();
+    
+    // Nombre de segments chargés ensemble ; en mode réel, chacun fait l'objet de sa propre requête
+    private static final int MAX_LEGS_PER_BATCH = 6;
+    
+    private static final String LIVE_MODE = "live";
+    
+    // simulated : segments générés localement ; live : appels HTTP à l'API (ou à un serveur de substitution)
+    @Value("${api.amadeus.mode:simulated}")
+    private String mode;
     
     @Value("${api.amadeus.baseUrl}")
     private String baseUrl;
     
-    @Value("${api.amadeus.apiKey}")
-    private String apiKey;
-    
-    @Value("${api.amadeus.apiSecret}")
-    private String apiSecret;
+    @Value("${api.amadeus.max-concurrent-requests:8}")
+    private int maxConcurrentRequests;
     
     /**
-     * Recherche des vols multi-destinations
+     * Récupère en lot un ensemble de segments distincts.
+     * Les segments en cache sont servis directement ; les autres sont répartis en lots
+     * de taille bornée, chargés avec au plus {@code max-concurrent-requests} lots simultanés.
+     * Les segments introuvables, ou dont le tarif dépasse {@code maxPrice}, sont absents de la table retournée.
+     * Le plafond est appliqué après la tarification : les chargements partagés entre recherches et le cache
+     * portent le meilleur tarif de chaque segment, quel que soit le budget de la recherche qui l'a demandé.
      */
-    public List<FlightLeg> searchMultiCityFlights(List<String> origins, List<String> destinations, 
-                                                 List<LocalDate> departureDates, double maxPrice) {
-        log.info("Recherche de vols multi-destinations avec Amadeus API");
-        
-        try {
-            // Obtenir un token d'authentification
-            String token = getAuthToken();
+    public Mono<Map<LegKey, FlightLeg>> prefetchLegs(Collection<LegKey> legKeys, double maxPrice) {
+        return Mono.defer(() -> {
+            Map<LegKey, FlightLeg> prices = new HashMap<>();
+            List<LegKey> missingLegs = new ArrayList<>();
             
-            // Construire la requête pour la recherche de vols
-            List<Map<String, Object>> originDestinations = new ArrayList<>();
-            for (int i = 0; i < origins.size(); i++) {
-                Map<String, Object> originDestination = Map.of(
-                    "id", String.valueOf(i + 1),
-                    "originLocationCode", origins.get(i),
-                    "destinationLocationCode", destinations.get(i),
-                    "departureDateTimeRange", Map.of(
-                        "date", departureDates.get(i).format(DateTimeFormatter.ISO_DATE)
-                    )
-                );
-                originDestinations.add(originDestination);
+            for (LegKey legKey : legKeys) {
+                FlightLeg leg = legFareCache.get(legKey);
+                if (leg != null) {
+                    if (leg.getPrice() <= maxPrice) {
+                        prices.put(legKey, leg);
+                    }
+                } else {
+                    missingLegs.add(legKey);
+                }
             }
             
-            Map<String, Object> requestBody = Map.of(
-                "originDestinations", originDestinations,
-                "travelers", List.of(
-                    Map.of(
-                        "id", "1",
-                        "travelerType", "ADULT",
-                        "fareOptions", List.of("STANDARD")
-                    )
-                ),
-                "sources", List.of("GDS"),
-                "searchCriteria", Map.of(
-                    "maxFlightOffers", 5,
-                    "maxPrice", maxPrice
-                )
-            );
-            
-            // Appeler l'API Amadeus
-            // Note: Dans une implémentation réelle, nous utiliserions la réponse de l'API
-            // Ici, nous simulons une réponse pour démonstration
+            List<List<LegKey>> batches = new ArrayList<>();
+            for (int start = 0; start < missingLegs.size(); start += MAX_LEGS_PER_BATCH) {
+                batches.add(missingLegs.subList(start, Math.min(start + MAX_LEGS_PER_BATCH, missingLegs.size())));
+            }
             
-            log.info("Requête Amadeus envoyée avec succès");
+            log.debug("Préchargement: {} segments demandés, {} depuis le cache, {} lots envoyés",
+                    legKeys.size(), legKeys.size() - missingLegs.size(), batches.size());
             
-            // Simuler une réponse pour démonstration
-            return simulateFlightResponse(origins, destinations, departureDates);
+            return Flux.fromIterable(batches)
+                    .flatMap(batch -> legRequestCoalescer
+                            .loadAll(batch, this::fetchAndCacheLegs)
+                            .onErrorResume(e -> {
+                                // Les segments du lot manqueront aux candidats qui les utilisent : compté et signalé
+                                droppedBatches.increment();
+                                droppedLegs.add(batch.size());
+                                log.warn("Lot de {} segments abandonné ({} lots abandonnés depuis le démarrage): {}",
+                                        batch.size(), droppedBatches.sum(), e.toString());
+                                return Mono.empty();
+                            }), maxConcurrentRequests)
+                    .reduce(prices, (accumulated, fetched) -> {
+                        fetched.forEach((legKey, leg) -> {
+                            if (leg != null && leg.getPrice() <= maxPrice) {
+                                accumulated.put(legKey, leg);
+                            }
+                        });
+                        return accumulated;
+                    });
+        });
+    }
+    
+    /**
+     * Statistiques du cache de segments tarifés
+     */
+    public LegFareCache.Stats getLegCacheStats() {
+        return legFareCache.getStats();
+    }
+    
+    /**
+     * Nombre de lots de segments abandonnés après l'échec de leur requête (nouvelles tentatives épuisées,
+     * disjoncteur ouvert, cloison pleine)
+     */
+    public long getDroppedBatchCount() {
+        return droppedBatches.sum();
+    }
+    
+    /**
+     * Nombre de segments abandonnés, seuls ou avec leur lot
+     */
+    public long getDroppedLegCount() {
+        return droppedLegs.sum();
+    }
+    
+    /**
+     * Statistiques de regroupement des requêtes de segments identiques
+     */
+    public RequestCoalescer.Stats getCoalescingStats() {
+        return legRequestCoalescer.getStats();
+    }
+    
+    /**
+     * Demande les segments à l'API et les place en cache
+     */
+    private Mono<Map<LegKey, FlightLeg>> fetchAndCacheLegs(List<LegKey> legKeys) {
+        return fetchLegs(legKeys).doOnNext(fetchedLegs -> fetchedLegs.forEach(legFareCache::put));
+    }
+    
+    /**
+     * Demande à l'API Amadeus les segments absents du cache, un segment par requête :
+     * le prix d'une offre multi-destinations ne peut pas être réparti entre ses trajets.
+     * En mode simulé, les segments sont générés localement.
+     */
+    private Mono<Map<LegKey, FlightLeg>> fetchLegs(List<LegKey> legKeys) {
+        // Obtenir un token d'authentification sans bloquer
+        return amadeusTokenManager.getAccessToken().flatMap(token -> {
+            if (!LIVE_MODE.equals(mode)) {
+                return Mono.just(simulateFlightResponse(legKeys));
+            }
             
-        } catch (Exception e) {
-            log.error("Erreur lors de la recherche de vols avec Amadeus API", e);
-            return new ArrayList<>();
-        }
+            return Flux.fromIterable(legKeys)
+                    .flatMap(legKey -> fetchLeg(token, legKey))
+                    .reduce(new HashMap<LegKey, FlightLeg>(), (legs, fetched) -> {
+                        legs.putAll(fetched);
+                        return legs;
+                    })
+                    .map(legs -> {
+                        log.debug("Réponses Amadeus: {} segments tarifés sur {} demandés", legs.size(), legKeys.size());
+                        return legs;
+                    });
+        });
+    }
+    
+    /**
+     * Demande les offres d'un segment ; en cas d'échec, le segment est compté comme abandonné
+     */
+    private Mono<Map<LegKey, FlightLeg>> fetchLeg(String token, LegKey legKey) {
+        // La recherche d'offres ne modifie rien côté Amadeus : elle peut être renvoyée sans risque.
+        // Seul l'échange HTTP est mesuré, à chaque tentative, une fois admis par le limiteur et la cloison
+        Mono<JsonNode> request = searchPipelineMetrics.timeAmadeusRequest(amadeusWebClient.post()
+                .uri(baseUrl + "/shopping/flight-offers")
+                .headers(headers -> headers.setBearerAuth(token))
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(buildFlightOffersRequest(legKey))
+                .retrieve()
+                .bodyToMono(JsonNode.class));
+        
+        return flightOffersGuard.execute(request, true, amadeusRateLimiter::throttle)
+                .map(response -> FlightOffersResponseParser.parse(response, List.of(legKey), amadeusLocationCodes))
+                .onErrorResume(e -> {
+                    droppedLegs.increment();
+                    log.warn("Segment {} abandonné: {}", legKey, e.toString());
+                    return Mono.empty();
+                });
     }
     
     /**
-     * Obtient un token d'authentification pour l'API Amadeus
+     * Construit le corps de la requête Flight Offers Search pour un segment, sans plafond de prix :
+     * la réponse est partagée entre des recherches de budgets différents
      */
-    private String getAuthToken() {
-        log.info("Obtention d'un token d'authentification Amadeus");
+    private Map<String, Object> buildFlightOffersRequest(LegKey legKey) {
+        Map<String, Object> originDestination = Map.of(
+            "id", "1",
+            "originLocationCode", amadeusLocationCodes.toLocationCode(legKey.getFrom()),
+            "destinationLocationCode", amadeusLocationCodes.toLocationCode(legKey.getTo()),
+            "departureDateTimeRange", Map.of(
+                "date", legKey.getDepartureDate().format(DateTimeFormatter.ISO_DATE)
+            )
+        );
         
-        // Dans une implémentation réelle, nous ferions un appel à l'API d'authentification Amadeus
-        // Pour cette démonstration, nous retournons un token fictif
-        return "dummy_token";
+        return Map.of(
+            "originDestinations", List.of(originDestination),
+            "travelers", List.of(
+                Map.of(
+                    "id", "1",
+                    "travelerType", "ADULT",
+                    "fareOptions", List.of("STANDARD")
+                )
+            ),
+            "sources", List.of("GDS"),
+            "searchCriteria", Map.of(
+                "maxFlightOffers", 5
+            )
+        );
     }
     
     /**
-     * Simule une réponse de l'API de vols pour démonstration
+     * Simule une réponse de l'API de vols pour démonstration.
+     * Le tarif et l'horaire ne dépendent que du segment, pour rester cohérents avec le cache.
      */
-    private List<FlightLeg> simulateFlightResponse(List<String> origins, List<String> destinations, 
-                                                  List<LocalDate> departureDates) {
-        List<FlightLeg> flightLegs = new ArrayList<>();
+    private Map<LegKey, FlightLeg> simulateFlightResponse(List<LegKey> legKeys) {
+        Map<LegKey, FlightLeg> flightLegs = new HashMap<>();
         
         String[] airlines = {"AF", "LH", "BA", "IB", "EJU"};
         
-        for (int i = 0; i < origins.size(); i++) {
-            String airline = airlines[i % airlines.length];
-            String flightNumber = airline + (1000 + (int)(Math.random() * 9000));
+        for (LegKey legKey : legKeys) {
+            int seed = Math.abs(legKey.hashCode() % 1000);
+            String airline = airlines[seed % airlines.length];
+            String flightNumber = airline + (1000 + seed * 9);
             
             FlightLeg leg = FlightLeg.builder()
-                    .from(origins.get(i))
-                    .to(destinations.get(i))
-                    .departureDate(departureDates.get(i))
-                    .departureTime(LocalTime.of(8 + i, 30))
-                    .arrivalDate(departureDates.get(i))
-                    .arrivalTime(LocalTime.of(10 + i, 15))
+                    .from(legKey.getFrom())
+                    .to(legKey.getTo())
+                    .departureDate(legKey.getDepartureDate())
+                    .departureTime(LocalTime.of(8 + seed % 10, 30))
+                    .arrivalDate(legKey.getDepartureDate())
+                    .arrivalTime(LocalTime.of(10 + seed % 10, 15))
                     .airline(airline)
                     .flightNumber(flightNumber)
-                    .price(80.0 + (i * 20.0))
-                    .duration((1 + i % 3) + "h " + (30 + i % 30) + "m")
+                    .price(80.0 + (seed % 4) * 20.0)
+                    .duration((1 + seed % 3) + "h " + (30 + seed % 30) + "m")
                     .build();
             
-            flightLegs.add(leg);
+            flightLegs.put(legKey, leg);
         }
         
         return flightLegs;
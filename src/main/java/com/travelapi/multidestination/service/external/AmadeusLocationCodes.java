@@ -0,0 +1,98 @@
+package com.travelapi.multidestination.service.external;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Correspondance entre les codes de ville de l'application et les codes de localisation d'Amadeus,
+ * chargée une seule fois au démarrage.
+ * Les requêtes portent le code de ville ou d'aéroport attendu par Amadeus (OPO pour POR) ;
+ * les offres portent les aéroports réellement desservis (CDG, ORY pour PAR), ramenés au code
+ * de ville de l'application pour retrouver le segment demandé.
+ */
+@Component
+@Slf4j
+public class AmadeusLocationCodes {
+
+    private static final String FIELD_SEPARATOR = "\t";
+    private static final String LIST_SEPARATOR = ";";
+    private static final int FIELD_COUNT = 3;
+
+    private final Map<String, String> locationByCode = new HashMap<>();
+    private final Map<String, String> codeByLocation = new HashMap<>();
+    private final Map<String, String> codeByAirport = new HashMap<>();
+    private final Map<String, List<String>> airportsByCode = new HashMap<>();
+
+    public AmadeusLocationCodes(@Value("${api.amadeus.locations:classpath:data/amadeus-locations.tsv}") Resource location) {
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(location.getInputStream(), StandardCharsets.UTF_8))) {
+            int lineNumber = 0;
+            String line;
+
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.trim().isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+
+                String[] fields = line.split(FIELD_SEPARATOR, -1);
+                if (fields.length != FIELD_COUNT || fields[0].trim().isEmpty() || fields[1].trim().isEmpty()) {
+                    throw new IllegalStateException("Ligne " + lineNumber + " invalide dans "
+                            + location.getDescription() + ": " + FIELD_COUNT + " champs attendus");
+                }
+
+                String code = fields[0].trim();
+                String locationCode = fields[1].trim();
+                List<String> airports = Collections.unmodifiableList(Arrays.asList(fields[2].trim().split(LIST_SEPARATOR)));
+
+                locationByCode.put(code, locationCode);
+                codeByLocation.put(locationCode, code);
+                airportsByCode.put(code, airports);
+                for (String airport : airports) {
+                    codeByAirport.put(airport, code);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Impossible de lire les codes de localisation " + location.getDescription(), e);
+        }
+
+        log.info("Codes de localisation Amadeus chargés: {} villes, {} aéroports",
+                locationByCode.size(), codeByAirport.size());
+    }
+
+    /**
+     * Code à envoyer à Amadeus pour une ville de l'application
+     */
+    public String toLocationCode(String code) {
+        return locationByCode.getOrDefault(code, code);
+    }
+
+    /**
+     * Ville de l'application desservie par un aéroport (ou désignée par un code de localisation Amadeus)
+     */
+    public String toCityCode(String airportOrLocationCode) {
+        String code = codeByAirport.get(airportOrLocationCode);
+        return code != null ? code : codeByLocation.getOrDefault(airportOrLocationCode, airportOrLocationCode);
+    }
+
+    /**
+     * Aéroports desservant la ville désignée par un code de localisation Amadeus
+     */
+    public List<String> airportsOf(String locationCode) {
+        List<String> airports = airportsByCode.get(toCityCode(locationCode));
+        return airports != null ? airports : Collections.singletonList(locationCode);
+    }
+}
@@ -0,0 +1,347 @@
+package com.travelapi.multidestination.service.external;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.context.Context;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Régule les requêtes envoyées à l'API de vols pour rester sous le quota de l'abonnement.
+ * Une requête part lorsqu'elle obtient un jeton du seau, rempli au débit du quota,
+ * et une place sous la limite de concurrence.
+ * Cette limite s'adapte (AIMD) : elle croît d'une unité par fenêtre de requêtes rapides, et diminue
+ * de façon multiplicative quand la latence dépasse la latence de référence multipliée par la tolérance,
+ * en cas de défaillance, et de moitié sur une réponse 429, qui suspend aussi le seau pendant le délai
+ * demandé par Retry-After.
+ * Les requêtes en attente sont servies à tour de rôle par client (la recherche qui les émet,
+ * lue dans le contexte Reactor) : une grosse recherche ne retarde pas les petites.
+ */
+@Component
+@Slf4j
+public class AmadeusRateLimiter {
+
+    /**
+     * Clé du contexte Reactor identifiant le client d'une requête
+     */
+    public static final String CLIENT_KEY = AmadeusRateLimiter.class.getName() + ".client";
+
+    private static final String DEFAULT_CLIENT = "default";
+    private static final long DEFAULT_THROTTLE_PAUSE_NANOS = TimeUnit.SECONDS.toNanos(1);
+    // Facteurs de réduction de la limite : latence excessive ou défaillance, puis réponse 429
+    private static final double BACKOFF_RATIO = 0.9;
+    private static final double THROTTLED_RATIO = 0.5;
+    // Nombre de réponses après lequel la latence de référence est recalculée
+    private static final int LATENCY_WINDOW = 200;
+
+    private final double permitsPerNano;
+    private final double burst;
+    private final double minLimit;
+    private final double maxLimit;
+    private final double latencyTolerance;
+    private final Timer waitTimer;
+
+    private final Object lock = new Object();
+    // Files d'attente par client et ordre de passage des clients qui attendent
+    private final Map<String, Deque<Waiter>> queues = new HashMap<>();
+    private final Deque<String> rotation = new ArrayDeque<>();
+    private int waitingCount;
+    private double availableTokens;
+    private long refilledAt = System.nanoTime();
+    private long pausedUntil = refilledAt;
+    private double limit;
+    private int inFlight;
+    private boolean drainScheduled;
+
+    // Latence de référence : minimum de la fenêtre précédente, et minimum en cours
+    private long baselineLatencyNanos = Long.MAX_VALUE;
+    private long windowMinLatencyNanos = Long.MAX_VALUE;
+    private int windowSamples;
+
+    private final LongAdder grantedPermits = new LongAdder();
+    private final LongAdder throttledResponses = new LongAdder();
+
+    public AmadeusRateLimiter(MeterRegistry meterRegistry,
+                              @Value("${api.amadeus.rate-limit.requests-per-second:10}") double requestsPerSecond,
+                              @Value("${api.amadeus.rate-limit.burst:1}") int burst,
+                              @Value("${api.amadeus.rate-limit.initial-concurrency:4}") int initialConcurrency,
+                              @Value("${api.amadeus.rate-limit.min-concurrency:1}") int minConcurrency,
+                              @Value("${api.amadeus.rate-limit.max-concurrency:32}") int maxConcurrency,
+                              @Value("${api.amadeus.rate-limit.latency-tolerance:2.0}") double latencyTolerance) {
+        if (requestsPerSecond <= 0 || burst <= 0 || minConcurrency <= 0 || maxConcurrency < minConcurrency) {
+            throw new IllegalArgumentException("Configuration du limiteur de requêtes Amadeus invalide");
+        }
+
+        this.permitsPerNano = requestsPerSecond / TimeUnit.SECONDS.toNanos(1);
+        this.burst = burst;
+        this.availableTokens = burst;
+        this.minLimit = minConcurrency;
+        this.maxLimit = maxConcurrency;
+        this.limit = Math.max(minConcurrency, Math.min(maxConcurrency, initialConcurrency));
+        this.latencyTolerance = latencyTolerance;
+        this.waitTimer = Timer.builder("amadeus.rate-limit.wait")
+                .description("Attente d'une autorisation avant l'envoi d'une requête à l'API de vols")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Contexte Reactor rattachant les requêtes émises en aval au client donné
+     */
+    public static Context forClient(String client) {
+        return Context.of(CLIENT_KEY, client);
+    }
+
+    /**
+     * Envoie l'appel une fois autorisé ; chaque souscription (nouvelle tentative comprise)
+     * attend sa propre autorisation, libérée à la fin de l'appel
+     */
+    public <T> Mono<T> throttle(Mono<T> call) {
+        return Mono.deferContextual(context -> {
+            String client = context.getOrDefault(CLIENT_KEY, DEFAULT_CLIENT);
+
+            return Mono.<Permit>create(sink -> enqueue(new Waiter(client, sink)))
+                    .flatMap(permit -> call
+                            .doOnSuccess(result -> permit.release(null))
+                            .doOnError(permit::release)
+                            .doOnCancel(() -> permit.release(null)));
+        });
+    }
+
+    public Stats getStats() {
+        synchronized (lock) {
+            return new Stats(limit, inFlight, waitingCount, grantedPermits.sum(), throttledResponses.sum());
+        }
+    }
+
+    private void enqueue(Waiter waiter) {
+        waiter.sink.onCancel(() -> {
+            if (waiter.state.compareAndSet(Waiter.WAITING, Waiter.CANCELLED)) {
+                synchronized (lock) {
+                    Deque<Waiter> queue = queues.get(waiter.client);
+                    if (queue != null && queue.remove(waiter)) {
+                        waitingCount--;
+                        if (queue.isEmpty()) {
+                            queues.remove(waiter.client);
+                            rotation.remove(waiter.client);
+                        }
+                    }
+                }
+            } else if (waiter.permit != null) {
+                // Autorisation accordée mais plus attendue
+                waiter.permit.release(null);
+            }
+        });
+
+        synchronized (lock) {
+            Deque<Waiter> queue = queues.get(waiter.client);
+            if (queue == null) {
+                queue = new ArrayDeque<>();
+                queues.put(waiter.client, queue);
+                rotation.add(waiter.client);
+            }
+            queue.add(waiter);
+            waitingCount++;
+        }
+
+        drain();
+    }
+
+    /**
+     * Accorde autant d'autorisations que le seau et la limite de concurrence le permettent,
+     * un client après l'autre ; sinon planifie un nouvel essai à l'arrivée du prochain jeton
+     */
+    private void drain() {
+        List<Waiter> granted = new ArrayList<>();
+        long retryInNanos = -1;
+
+        synchronized (lock) {
+            long now = System.nanoTime();
+            availableTokens = Math.min(burst, availableTokens + (now - refilledAt) * permitsPerNano);
+            refilledAt = now;
+
+            while (waitingCount > 0 && inFlight < (int) limit) {
+                if (now - pausedUntil < 0 || availableTokens < 1) {
+                    retryInNanos = Math.max(pausedUntil - now, (long) Math.ceil((1 - availableTokens) / permitsPerNano));
+                    break;
+                }
+
+                Waiter waiter = nextWaiter();
+                waiter.permit = new Permit(now);
+                if (waiter.state.compareAndSet(Waiter.WAITING, Waiter.GRANTED)) {
+                    availableTokens--;
+                    inFlight++;
+                    granted.add(waiter);
+                }
+            }
+
+            if (retryInNanos >= 0 && !drainScheduled) {
+                drainScheduled = true;
+            } else {
+                retryInNanos = -1;
+            }
+        }
+
+        for (Waiter waiter : granted) {
+            grantedPermits.increment();
+            waitTimer.record(waiter.permit.grantedAt - waiter.enqueuedAt, TimeUnit.NANOSECONDS);
+            waiter.sink.success(waiter.permit);
+        }
+
+        if (retryInNanos >= 0) {
+            Schedulers.parallel().schedule(() -> {
+                synchronized (lock) {
+                    drainScheduled = false;
+                }
+                drain();
+            }, Math.max(1, retryInNanos), TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Premier waiter du client dont c'est le tour ; le client repasse en fin de rotation s'il attend encore
+     */
+    private Waiter nextWaiter() {
+        String client = rotation.poll();
+        Deque<Waiter> queue = queues.get(client);
+        Waiter waiter = queue.poll();
+        waitingCount--;
+
+        if (queue.isEmpty()) {
+            queues.remove(client);
+        } else {
+            rotation.add(client);
+        }
+        return waiter;
+    }
+
+    /**
+     * Ajuste la limite de concurrence selon l'issue de l'appel, puis libère sa place
+     */
+    private void onComplete(long latencyNanos, Throwable error) {
+        synchronized (lock) {
+            inFlight--;
+
+            if (UpstreamGuard.isThrottled(error)) {
+                throttledResponses.increment();
+                long now = System.nanoTime();
+
+                // Les refus des requêtes parties avant la pause relèvent du même dépassement
+                if (now - pausedUntil >= 0) {
+                    limit = Math.max(minLimit, limit * THROTTLED_RATIO);
+                    log.warn("Quota Amadeus atteint (429), limite de concurrence ramenée à {}", (int) limit);
+                }
+                availableTokens = 0;
+                long resumeAt = now + retryAfterNanos((WebClientResponseException) error);
+                if (resumeAt - pausedUntil > 0) {
+                    pausedUntil = resumeAt;
+                }
+
+            } else if (error != null && UpstreamGuard.isUpstreamFailure(error)) {
+                limit = Math.max(minLimit, limit * BACKOFF_RATIO);
+
+            } else if (error == null) {
+                recordLatency(latencyNanos);
+
+                if (latencyNanos > baselineLatencyNanos * latencyTolerance) {
+                    limit = Math.max(minLimit, limit * BACKOFF_RATIO);
+                } else if (inFlight + 1 >= (int) limit) {
+                    // N'augmenter que si la limite est effectivement atteinte
+                    limit = Math.min(maxLimit, limit + 1 / limit);
+                }
+            }
+        }
+
+        drain();
+    }
+
+    private void recordLatency(long latencyNanos) {
+        windowMinLatencyNanos = Math.min(windowMinLatencyNanos, latencyNanos);
+        if (baselineLatencyNanos == Long.MAX_VALUE) {
+            baselineLatencyNanos = latencyNanos;
+        }
+
+        if (++windowSamples >= LATENCY_WINDOW) {
+            baselineLatencyNanos = windowMinLatencyNanos;
+            windowMinLatencyNanos = Long.MAX_VALUE;
+            windowSamples = 0;
+        }
+    }
+
+    private static long retryAfterNanos(WebClientResponseException error) {
+        String retryAfter = error.getHeaders().getFirst("Retry-After");
+        if (retryAfter != null) {
+            try {
+                return TimeUnit.SECONDS.toNanos(Long.parseLong(retryAfter.trim()));
+            } catch (NumberFormatException e) {
+                log.debug("En-tête Retry-After non numérique ignoré: {}", retryAfter);
+            }
+        }
+        return DEFAULT_THROTTLE_PAUSE_NANOS;
+    }
+
+    private static final class Waiter {
+        private static final int WAITING = 0;
+        private static final int GRANTED = 1;
+        private static final int CANCELLED = 2;
+
+        private final String client;
+        private final MonoSink<Permit> sink;
+        private final long enqueuedAt = System.nanoTime();
+        private final AtomicInteger state = new AtomicInteger(WAITING);
+        private volatile Permit permit;
+
+        private Waiter(String client, MonoSink<Permit> sink) {
+            this.client = client;
+            this.sink = sink;
+        }
+    }
+
+    /**
+     * Autorisation d'envoi d'une requête, rendue une seule fois quelle que soit l'issue
+     */
+    private final class Permit {
+        private final long grantedAt;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Permit(long grantedAt) {
+            this.grantedAt = grantedAt;
+        }
+
+        private void release(Throwable error) {
+            if (released.compareAndSet(false, true)) {
+                onComplete(System.nanoTime() - grantedAt, error);
+            }
+        }
+    }
+
+    /**
+     * Instantané de l'état du limiteur
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class Stats {
+        private final double concurrencyLimit;
+        private final int inFlight;
+        private final int waitingRequests;
+        private final long grantedPermits;
+        private final long throttledResponses;
+    }
+}
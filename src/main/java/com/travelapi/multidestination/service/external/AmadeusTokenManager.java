@@ -0,0 +1,145 @@
+package com.travelapi.multidestination.service.external;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Gère le jeton d'accès Amadeus : le conserve jusqu'à son expiration, le rafraîchit
+ * en arrière-plan peu avant, et partage un unique rafraîchissement entre les appelants concurrents.
+ */
+@Component
+@Slf4j
+public class AmadeusTokenManager {
+
+    private static final Duration RETRY_DELAY = Duration.ofSeconds(5);
+    private static final Duration REFRESH_TIMEOUT = Duration.ofSeconds(15);
+
+    private final AmadeusAuthClient authClient;
+    private final Duration refreshAhead;
+    private final ScheduledExecutorService refreshScheduler;
+
+    private final AtomicReference<CompletableFuture<AccessToken>> refreshInFlight = new AtomicReference<>();
+    private final AtomicLong refreshCount = new AtomicLong();
+    private volatile AccessToken currentToken;
+    private volatile Instant refreshAt = Instant.MAX;
+    // Prochain rafraîchissement planifié ; n'est manipulé que par le thread de rafraîchissement
+    private ScheduledFuture<?> scheduledRefresh;
+
+    public AmadeusTokenManager(AmadeusAuthClient authClient,
+                               @Value("${api.amadeus.token.refresh-ahead-seconds:60}") long refreshAheadSeconds) {
+        this.authClient = authClient;
+        this.refreshAhead = Duration.ofSeconds(refreshAheadSeconds);
+        this.refreshScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "amadeus-token-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Retourne un jeton valide, en attendant sans bloquer le rafraîchissement en cours si nécessaire
+     */
+    public Mono<String> getAccessToken() {
+        return Mono.defer(() -> {
+            AccessToken token = currentToken;
+            Instant now = Instant.now();
+
+            if (token != null && !token.isExpired(now)) {
+                if (!now.isBefore(refreshAt)) {
+                    // Le rafraîchissement planifié n'a pas encore abouti : le relancer sans attendre
+                    refresh();
+                }
+                return Mono.just(token.getValue());
+            }
+
+            // Annuler l'attente ne doit pas annuler le rafraîchissement partagé
+            return Mono.fromFuture(refresh(), true)
+                    .timeout(REFRESH_TIMEOUT)
+                    .map(AccessToken::getValue)
+                    .onErrorMap(e -> new IllegalStateException("Impossible d'obtenir un token Amadeus", e));
+        });
+    }
+
+    /**
+     * Nombre d'appels au serveur d'authentification depuis le démarrage
+     */
+    public long getRefreshCount() {
+        return refreshCount.get();
+    }
+
+    /**
+     * Démarre un rafraîchissement, ou rejoint celui qui est déjà en cours
+     */
+    private CompletableFuture<AccessToken> refresh() {
+        while (true) {
+            CompletableFuture<AccessToken> inFlight = refreshInFlight.get();
+            if (inFlight != null) {
+                return inFlight;
+            }
+
+            CompletableFuture<AccessToken> created = new CompletableFuture<>();
+            if (refreshInFlight.compareAndSet(null, created)) {
+                refreshScheduler.execute(() -> performRefresh(created));
+                return created;
+            }
+        }
+    }
+
+    private void performRefresh(CompletableFuture<AccessToken> result) {
+        try {
+            refreshCount.incrementAndGet();
+            AccessToken token = authClient.requestToken();
+
+            // Rafraîchir avant l'expiration, sans dépasser la moitié de la durée de vie du jeton
+            Duration lifetime = Duration.between(Instant.now(), token.getExpiresAt());
+            Duration margin = refreshAhead.compareTo(lifetime.dividedBy(2)) < 0 ? refreshAhead : lifetime.dividedBy(2);
+            Duration delay = lifetime.minus(margin);
+
+            refreshAt = token.getExpiresAt().minus(margin);
+            currentToken = token;
+            result.complete(token);
+
+            scheduleRefresh(delay.compareTo(RETRY_DELAY) < 0 ? RETRY_DELAY : delay);
+            log.debug("Token Amadeus rafraîchi, expiration à {}", token.getExpiresAt());
+
+        } catch (Exception e) {
+            log.error("Échec du rafraîchissement du token Amadeus", e);
+            result.completeExceptionally(e);
+            scheduleRefresh(RETRY_DELAY);
+
+        } finally {
+            refreshInFlight.compareAndSet(result, null);
+        }
+    }
+
+    /**
+     * Remplace le rafraîchissement planifié : un rafraîchissement déclenché par un appelant ou
+     * une nouvelle tentative après un échec ne s'ajoute pas à celui qui était déjà prévu
+     */
+    private void scheduleRefresh(Duration delay) {
+        if (scheduledRefresh != null) {
+            scheduledRefresh.cancel(false);
+        }
+        if (!refreshScheduler.isShutdown()) {
+            scheduledRefresh = refreshScheduler.schedule(this::refresh, delay.toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        refreshScheduler.shutdownNow();
+    }
+}
@@ -0,0 +1,107 @@
+package com.travelapi.multidestination.service.external;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.travelapi.multidestination.model.FlightLeg;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Lecture d'une réponse Flight Offers Search : chaque offre d'un seul itinéraire est rattachée au segment
+ * demandé dont elle reprend l'origine, la destination (aéroports ramenés à leur ville) et la date,
+ * et seule la moins chère est conservée.
+ * Le prix d'une offre de plusieurs itinéraires couvre l'ensemble du voyage sans être détaillé par trajet :
+ * ces offres sont ignorées plutôt que d'attribuer à chaque segment une part arbitraire du prix.
+ */
+final class FlightOffersResponseParser {
+
+    private FlightOffersResponseParser() {
+    }
+
+    /**
+     * @return le segment le moins cher trouvé pour chaque segment demandé ; les segments sans offre sont absents
+     */
+    static Map<LegKey, FlightLeg> parse(JsonNode response, Collection<LegKey> requestedLegs,
+                                        AmadeusLocationCodes locationCodes) {
+        Set<LegKey> requested = new HashSet<>(requestedLegs);
+        Map<LegKey, FlightLeg> cheapest = new HashMap<>();
+
+        for (JsonNode offer : response.path("data")) {
+            JsonNode itineraries = offer.path("itineraries");
+            if (itineraries.size() != 1) {
+                continue;
+            }
+
+            double price;
+            try {
+                price = Double.parseDouble(offer.path("price").path("total").asText());
+            } catch (NumberFormatException e) {
+                continue;
+            }
+
+            FlightLeg leg = toLeg(itineraries.get(0), price, locationCodes);
+            if (leg == null) {
+                continue;
+            }
+
+            LegKey key = new LegKey(leg.getFrom(), leg.getTo(), leg.getDepartureDate());
+            FlightLeg current = cheapest.get(key);
+
+            if (requested.contains(key) && (current == null || leg.getPrice() < current.getPrice())) {
+                cheapest.put(key, leg);
+            }
+        }
+
+        return cheapest;
+    }
+
+    private static FlightLeg toLeg(JsonNode itinerary, double price, AmadeusLocationCodes locationCodes) {
+        JsonNode segments = itinerary.path("segments");
+        if (segments.size() == 0) {
+            return null;
+        }
+
+        JsonNode first = segments.get(0);
+        JsonNode last = segments.get(segments.size() - 1);
+
+        try {
+            LocalDateTime departure = LocalDateTime.parse(first.path("departure").path("at").asText());
+            LocalDateTime arrival = LocalDateTime.parse(last.path("arrival").path("at").asText());
+            String carrier = first.path("carrierCode").asText();
+
+            return FlightLeg.builder()
+                    .from(locationCodes.toCityCode(first.path("departure").path("iataCode").asText()))
+                    .to(locationCodes.toCityCode(last.path("arrival").path("iataCode").asText()))
+                    .departureDate(departure.toLocalDate())
+                    .departureTime(departure.toLocalTime())
+                    .arrivalDate(arrival.toLocalDate())
+                    .arrivalTime(arrival.toLocalTime())
+                    .airline(carrier)
+                    .flightNumber(carrier + first.path("number").asText())
+                    .price(price)
+                    .duration(formatDuration(itinerary.path("duration").asText(), departure, arrival))
+                    .build();
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Durée au format des segments simulés ("2h 45m"), depuis la durée ISO-8601 de l'itinéraire
+     */
+    private static String formatDuration(String isoDuration, LocalDateTime departure, LocalDateTime arrival) {
+        Duration duration;
+        try {
+            duration = Duration.parse(isoDuration);
+        } catch (DateTimeParseException e) {
+            duration = Duration.between(departure, arrival);
+        }
+        return duration.toHours() + "h " + duration.toMinutes() % 60 + "m";
+    }
+}
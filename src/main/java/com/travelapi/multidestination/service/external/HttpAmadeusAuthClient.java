@@ -0,0 +1,73 @@
+package com.travelapi.multidestination.service.external;
+
+import com.travelapi.multidestination.config.AmadeusHttpClientConfig;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.BodyInserters;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * Client OAuth2 (client_credentials) pour l'API Amadeus
+ */
+@Component
+@ConditionalOnProperty(name = "api.amadeus.mode", havingValue = "live")
+@RequiredArgsConstructor
+@Slf4j
+public class HttpAmadeusAuthClient implements AmadeusAuthClient {
+
+    private static final Duration AUTH_TIMEOUT = Duration.ofSeconds(10);
+
+    @Qualifier("amadeusWebClient")
+    private final WebClient amadeusWebClient;
+    @Qualifier(AmadeusHttpClientConfig.AUTH_UPSTREAM)
+    private final UpstreamGuard authGuard;
+
+    @Value("${api.amadeus.authUrl}")
+    private String authUrl;
+
+    @Value("${api.amadeus.apiKey}")
+    private String apiKey;
+
+    @Value("${api.amadeus.apiSecret}")
+    private String apiSecret;
+
+    @Override
+    public AccessToken requestToken() {
+        log.info("Obtention d'un token d'authentification Amadeus");
+
+        Mono<Map<String, Object>> request = amadeusWebClient.post()
+                .uri(authUrl)
+                .contentType(MediaType.APPLICATION_FORM_URLENCODED)
+                .body(BodyInserters.fromFormData("grant_type", "client_credentials")
+                        .with("client_id", apiKey)
+                        .with("client_secret", apiSecret))
+                .retrieve()
+                .bodyToMono(new ParameterizedTypeReference<Map<String, Object>>() {});
+
+        // Un nouveau jeton remplace simplement le précédent : la demande peut être renvoyée
+        Map<String, Object> response = authGuard.execute(request, true).block(AUTH_TIMEOUT);
+
+        if (response == null || response.get("access_token") == null) {
+            throw new IllegalStateException("Réponse d'authentification Amadeus invalide");
+        }
+
+        // Sans durée de validité, le jeton serait à rafraîchir en permanence
+        Object expiresIn = response.get("expires_in");
+        if (!(expiresIn instanceof Number) || ((Number) expiresIn).longValue() <= 0) {
+            throw new IllegalStateException("Durée de validité du token Amadeus absente ou invalide: " + expiresIn);
+        }
+
+        return new AccessToken((String) response.get("access_token"), Instant.now().plusSeconds(((Number) expiresIn).longValue()));
+    }
+}
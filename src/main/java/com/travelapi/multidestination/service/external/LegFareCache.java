@@ -0,0 +1,175 @@
+package com.travelapi.multidestination.service.external;
+
+import com.travelapi.multidestination.model.FlightLeg;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Cache en mémoire des segments de vol tarifés, indexé par (origine, destination, date).
+ * Les entrées expirent après un TTL ; au-delà de la taille maximale, les moins récemment utilisées
+ * sont évincées.
+ * Lectures et écritures passent par une table concurrente, sans verrou commun : chaque entrée note
+ * l'heure de son dernier accès, et l'éviction est faite par lots par un seul thread à la fois, qui
+ * ramène la taille sous la limite avec une marge. L'ordre LRU est donc approché et la taille peut
+ * dépasser brièvement la limite pendant qu'une éviction est en cours.
+ * Les segments retournés sont partagés entre itinéraires et ne doivent pas être modifiés.
+ */
+@Component
+public class LegFareCache {
+
+    // Part de la taille maximale libérée à chaque éviction, pour ne pas trier la table à chaque ajout
+    private static final int EVICTION_BATCH_DIVISOR = 10;
+
+    private final long ttlNanos;
+    private final int maxSize;
+    private final int evictionTarget;
+    private final Map<LegKey, Entry> entries = new ConcurrentHashMap<>();
+    private final ReentrantLock evictionLock = new ReentrantLock();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public LegFareCache(@Value("${api.amadeus.cache.ttl-seconds:600}") long ttlSeconds,
+                        @Value("${api.amadeus.cache.max-size:10000}") int maxSize) {
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+        this.maxSize = maxSize;
+        this.evictionTarget = maxSize - Math.max(1, maxSize / EVICTION_BATCH_DIVISOR);
+    }
+
+    /**
+     * Retourne le segment en cache, ou null s'il est absent ou expiré
+     */
+    public FlightLeg get(LegKey key) {
+        Entry entry = entries.get(key);
+        long now = System.nanoTime();
+
+        if (entry != null && entry.expiresAt - now <= 0) {
+            if (entries.remove(key, entry)) {
+                evictions.increment();
+            }
+            entry = null;
+        }
+
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+
+        entry.lastAccess = now;
+        hits.increment();
+        return entry.leg;
+    }
+
+    public void put(LegKey key, FlightLeg leg) {
+        long now = System.nanoTime();
+        entries.put(key, new Entry(leg, now + ttlNanos, now));
+
+        // Les ajouts concurrents d'une éviction en cours sont rattrapés par le thread qui la mène
+        if (entries.size() > maxSize && evictionLock.tryLock()) {
+            try {
+                do {
+                    evict();
+                } while (entries.size() > maxSize);
+            } finally {
+                evictionLock.unlock();
+            }
+        }
+    }
+
+    public Stats getStats() {
+        return new Stats(hits.sum(), misses.sum(), evictions.sum(), entries.size());
+    }
+
+    /**
+     * Retire les entrées expirées puis, si la table reste trop grande, les moins récemment utilisées
+     * jusqu'à la taille cible, dans l'ordre des heures d'accès lues avant le tri.
+     * Une entrée remplacée pendant le tri est conservée.
+     */
+    private void evict() {
+        long now = System.nanoTime();
+        List<Candidate> candidates = new ArrayList<>(entries.size());
+
+        for (Map.Entry<LegKey, Entry> mapping : entries.entrySet()) {
+            Entry entry = mapping.getValue();
+            if (entry.expiresAt - now <= 0) {
+                if (entries.remove(mapping.getKey(), entry)) {
+                    evictions.increment();
+                }
+            } else {
+                candidates.add(new Candidate(mapping.getKey(), entry));
+            }
+        }
+
+        int excess = entries.size() - evictionTarget;
+        if (excess <= 0) {
+            return;
+        }
+
+        candidates.sort(Comparator.comparingLong(candidate -> candidate.lastAccess));
+        for (int i = 0; i < candidates.size() && excess > 0; i++) {
+            Candidate candidate = candidates.get(i);
+
+            if (entries.remove(candidate.key, candidate.entry)) {
+                evictions.increment();
+                excess--;
+            }
+        }
+    }
+
+    private static final class Entry {
+        private final FlightLeg leg;
+        private final long expiresAt;
+        // Écrit sans synchronisation par les lectures : une mise à jour perdue ne fait qu'approcher l'ordre LRU
+        private volatile long lastAccess;
+
+        private Entry(FlightLeg leg, long expiresAt, long lastAccess) {
+            this.leg = leg;
+            this.expiresAt = expiresAt;
+            this.lastAccess = lastAccess;
+        }
+    }
+
+    /**
+     * Entrée candidate à l'éviction, avec l'heure d'accès lue avant le tri
+     */
+    private static final class Candidate {
+        private final LegKey key;
+        private final Entry entry;
+        private final long lastAccess;
+
+        private Candidate(LegKey key, Entry entry) {
+            this.key = key;
+            this.entry = entry;
+            this.lastAccess = entry.lastAccess;
+        }
+    }
+
+    /**
+     * Instantané des statistiques du cache
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class Stats {
+        private final long hitCount;
+        private final long missCount;
+        private final long evictionCount;
+        private final int size;
+
+        public double getHitRate() {
+            long requests = hitCount + missCount;
+            return requests == 0 ? 0.0 : (double) hitCount / requests;
+        }
+    }
+}
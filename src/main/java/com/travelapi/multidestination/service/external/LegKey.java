@@ -0,0 +1,15 @@
+package com.travelapi.multidestination.service.external;
+
+import lombok.Value;
+
+import java.time.LocalDate;
+
+/**
+ * Identifie un segment de vol : trajet et date de départ
+ */
+@Value
+public class LegKey {
+    String from;
+    String to;
+    LocalDate departureDate;
+}
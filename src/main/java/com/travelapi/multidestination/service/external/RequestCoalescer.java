@@ -0,0 +1,146 @@
+package com.travelapi.multidestination.service.external;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Regroupe les requêtes identiques simultanées (single-flight).
+ * Lorsqu'une clé est déjà en cours de chargement, les appelants suivants attendent
+ * le résultat en cours au lieu de déclencher un nouvel appel amont.
+ */
+public class RequestCoalescer<K, V> {
+
+    private final Map<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+    private final LongAdder loadedKeys = new LongAdder();
+    private final LongAdder collapsedKeys = new LongAdder();
+    private final LongAdder failedKeys = new LongAdder();
+
+    /**
+     * Charge les clés demandées. Les clés déjà en vol sont rattachées au chargement existant,
+     * les autres sont chargées en un seul appel au chargeur.
+     * Une clé absente du résultat du chargeur est associée à null ; une clé rattachée à un chargement
+     * en échec est absente du résultat.
+     * Les clés sont réservées à la souscription ; rien n'est bloqué pendant l'attente.
+     */
+    public Mono<Map<K, V>> loadAll(List<K> keys, Function<List<K>, Mono<Map<K, V>>> batchLoader) {
+        return Mono.defer(() -> {
+            Map<K, CompletableFuture<V>> owned = new LinkedHashMap<>();
+            Map<K, CompletableFuture<V>> attached = new LinkedHashMap<>();
+
+            for (K key : keys) {
+                if (owned.containsKey(key) || attached.containsKey(key)) {
+                    continue;
+                }
+
+                CompletableFuture<V> created = new CompletableFuture<>();
+                CompletableFuture<V> existing = inFlight.putIfAbsent(key, created);
+
+                if (existing == null) {
+                    owned.put(key, created);
+                } else {
+                    attached.put(key, existing);
+                    collapsedKeys.increment();
+                }
+            }
+
+            Mono<Map<K, V>> ownedResults = owned.isEmpty()
+                    ? Mono.just(Collections.<K, V>emptyMap())
+                    : loadOwned(owned, batchLoader);
+
+            return ownedResults.flatMap(loaded -> awaitAttached(attached).map(joined -> {
+                Map<K, V> results = new LinkedHashMap<>(loaded);
+                results.putAll(joined);
+                return results;
+            }));
+        });
+    }
+
+    /**
+     * Charge les clés réservées par cet appel et publie chaque résultat aux appelants rattachés.
+     * Le chargement est détaché de l'appelant qui l'a lancé : si celui-ci annule, le chargement
+     * va tout de même à son terme pour les appelants rattachés. En cas d'échec, ceux-ci sont libérés
+     * avec l'erreur.
+     */
+    private Mono<Map<K, V>> loadOwned(Map<K, CompletableFuture<V>> owned,
+                                      Function<List<K>, Mono<Map<K, V>>> batchLoader) {
+        loadedKeys.add(owned.size());
+
+        return Mono.deferContextual(context -> {
+            CompletableFuture<Map<K, V>> load = batchLoader.apply(new ArrayList<>(owned.keySet()))
+                    .defaultIfEmpty(Collections.emptyMap())
+                    .map(loaded -> {
+                        Map<K, V> results = new LinkedHashMap<>();
+                        owned.forEach((key, future) -> {
+                            V value = loaded.get(key);
+                            results.put(key, value);
+                            future.complete(value);
+                        });
+                        return results;
+                    })
+                    .doOnError(e -> owned.values().forEach(future -> future.completeExceptionally(e)))
+                    .doFinally(signal -> owned.forEach(inFlight::remove))
+                    .contextWrite(context)
+                    .toFuture();
+
+            // Annuler l'attente de l'appelant ne doit pas annuler le chargement partagé
+            return Mono.fromFuture(load, true);
+        });
+    }
+
+    /**
+     * Attend les chargements en vol auxquels cet appel est rattaché.
+     * Chaque clé est résolue séparément : une clé dont le chargement a échoué est absente du résultat,
+     * sans faire échouer les autres.
+     */
+    private Mono<Map<K, V>> awaitAttached(Map<K, CompletableFuture<V>> attached) {
+        if (attached.isEmpty()) {
+            return Mono.just(Collections.emptyMap());
+        }
+
+        CompletableFuture<?>[] settled = new CompletableFuture<?>[attached.size()];
+        int index = 0;
+        for (CompletableFuture<V> future : attached.values()) {
+            settled[index++] = future.handle((value, error) -> null);
+        }
+
+        return Mono.fromFuture(CompletableFuture.allOf(settled), true).then(Mono.fromSupplier(() -> {
+            Map<K, V> results = new LinkedHashMap<>();
+            attached.forEach((key, future) -> {
+                if (future.isCompletedExceptionally()) {
+                    failedKeys.increment();
+                } else {
+                    results.put(key, future.join());
+                }
+            });
+            return results;
+        }));
+    }
+
+    public Stats getStats() {
+        return new Stats(loadedKeys.sum(), collapsedKeys.sum(), failedKeys.sum(), inFlight.size());
+    }
+
+    /**
+     * Instantané des statistiques de regroupement
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class Stats {
+        private final long loadedCount;
+        private final long collapsedCount;
+        private final long failedCount;
+        private final int inFlightCount;
+    }
+}
@@ -0,0 +1,39 @@
+package com.travelapi.multidestination.service.external;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Serveur d'authentification local, utilisé hors ligne.
+ * La durée de vie des jetons est configurable afin d'observer le rafraîchissement.
+ */
+@Component
+@ConditionalOnProperty(name = "api.amadeus.mode", havingValue = "simulated", matchIfMissing = true)
+@Slf4j
+public class SimulatedAmadeusAuthClient implements AmadeusAuthClient {
+
+    private final AtomicLong issuedTokens = new AtomicLong();
+
+    @Value("${api.amadeus.simulated-token-ttl-seconds:1799}")
+    private long tokenTtlSeconds;
+
+    @Override
+    public AccessToken requestToken() {
+        long tokenNumber = issuedTokens.incrementAndGet();
+        log.info("Émission du token simulé n°{}", tokenNumber);
+
+        return new AccessToken("simulated-token-" + tokenNumber, Instant.now().plusSeconds(tokenTtlSeconds));
+    }
+
+    /**
+     * Nombre de jetons émis depuis le démarrage
+     */
+    public long getIssuedTokens() {
+        return issuedTokens.get();
+    }
+}
@@ -0,0 +1,146 @@
+package com.travelapi.multidestination.service.external;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.reactor.bulkhead.operator.BulkheadOperator;
+import io.github.resilience4j.reactor.circuitbreaker.operator.CircuitBreakerOperator;
+import io.netty.channel.ConnectTimeoutException;
+import io.netty.handler.timeout.TimeoutException;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.PrematureCloseException;
+import reactor.util.retry.Retry;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.time.Duration;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.UnaryOperator;
+
+/**
+ * Protège les appels vers un service amont : cloison (bulkhead), disjoncteur et nouvelles tentatives.
+ * La cloison borne les tentatives simultanément en cours et refuse immédiatement les suivantes,
+ * sans file d'attente ; elle n'est prise qu'une fois la tentative admise, et n'est donc pas occupée
+ * pendant l'attente d'admission ni pendant les délais entre tentatives.
+ * Le disjoncteur, une fois ouvert, fait échouer les appels sans les émettre.
+ * Chaque tentative passe par le disjoncteur ; seules les défaillances du service amont sont retentées,
+ * avec un délai exponentiel aléatoire, et toutes ne le sont que pour les appels idempotents :
+ * une requête qui n'a pas pu être envoyée (connexion refusée ou impossible) ou qui a été refusée
+ * par le quota (429) peut toujours l'être.
+ */
+@Slf4j
+public class UpstreamGuard {
+
+    private final String name;
+    private final CircuitBreaker circuitBreaker;
+    private final Bulkhead bulkhead;
+    private final int maxRetries;
+    private final Duration minBackoff;
+    private final Duration maxBackoff;
+
+    private final LongAdder retries = new LongAdder();
+
+    public UpstreamGuard(String name, CircuitBreaker circuitBreaker, Bulkhead bulkhead,
+                         int maxRetries, Duration minBackoff, Duration maxBackoff) {
+        this.name = name;
+        this.circuitBreaker = circuitBreaker;
+        this.bulkhead = bulkhead;
+        this.maxRetries = maxRetries;
+        this.minBackoff = minBackoff;
+        this.maxBackoff = maxBackoff;
+    }
+
+    /**
+     * Exécute l'appel, souscrit à nouveau à chaque tentative
+     */
+    public <T> Mono<T> execute(Mono<T> call, boolean idempotent) {
+        return execute(call, idempotent, UnaryOperator.identity());
+    }
+
+    /**
+     * Exécute l'appel en faisant passer chaque tentative par une étape d'admission (limiteur de débit).
+     * L'attente d'admission n'est comptée ni dans la durée vue par le disjoncteur, ni dans l'occupation de la cloison ;
+     * disjoncteur ouvert, l'appel échoue sans attendre d'être admis.
+     */
+    public <T> Mono<T> execute(Mono<T> call, boolean idempotent, UnaryOperator<Mono<T>> admission) {
+        Retry retry = Retry.backoff(maxRetries, minBackoff)
+                .maxBackoff(maxBackoff)
+                .jitter(0.5)
+                .filter(error -> isThrottled(error) || (idempotent ? isUpstreamFailure(error) : isNotSent(error)))
+                .doBeforeRetry(signal -> {
+                    retries.increment();
+                    log.debug("Nouvelle tentative {} vers {} après: {}",
+                            signal.totalRetries() + 1, name, signal.failure().toString());
+                })
+                .onRetryExhaustedThrow((spec, signal) -> signal.failure());
+
+        Mono<T> admitted = admission.apply(call
+                .transformDeferred(CircuitBreakerOperator.of(circuitBreaker))
+                .transformDeferred(BulkheadOperator.of(bulkhead)));
+        Mono<T> attempt = Mono.defer(() -> circuitBreaker.getState() == CircuitBreaker.State.OPEN
+                ? Mono.<T>error(CallNotPermittedException.createCallNotPermittedException(circuitBreaker))
+                : admitted);
+
+        return attempt.retryWhen(retry);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Stats getStats() {
+        return new Stats(circuitBreaker.getState().name(), retries.sum(),
+                circuitBreaker.getMetrics().getNumberOfNotPermittedCalls(),
+                bulkhead.getMetrics().getAvailableConcurrentCalls());
+    }
+
+    /**
+     * Défaillance imputable au service amont : réseau, délai dépassé ou erreur serveur.
+     * Les erreurs de la requête elle-même (4xx) et les refus de la cloison ou du disjoncteur n'en sont pas.
+     */
+    public static boolean isUpstreamFailure(Throwable error) {
+        if (error instanceof WebClientResponseException) {
+            int status = ((WebClientResponseException) error).getStatusCode().value();
+            return status >= 500 && status != 501;
+        }
+
+        return error instanceof WebClientRequestException
+                || error instanceof TimeoutException
+                || error instanceof java.util.concurrent.TimeoutException
+                || error instanceof PrematureCloseException
+                || error instanceof IOException;
+    }
+
+    /**
+     * Requête refusée par le quota du service amont (429) : elle n'a pas été traitée
+     */
+    public static boolean isThrottled(Throwable error) {
+        return error instanceof WebClientResponseException
+                && ((WebClientResponseException) error).getStatusCode().value() == 429;
+    }
+
+    /**
+     * La requête n'a pas quitté le client : la renvoyer ne peut pas la dupliquer
+     */
+    private static boolean isNotSent(Throwable error) {
+        Throwable cause = error instanceof WebClientRequestException ? error.getCause() : error;
+        return cause instanceof ConnectException || cause instanceof ConnectTimeoutException;
+    }
+
+    /**
+     * Instantané de l'état d'un service amont
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class Stats {
+        private final String circuitState;
+        private final long retryCount;
+        private final long rejectedByCircuitCount;
+        private final int availableConcurrentCalls;
+    }
+}
@@ -0,0 +1,123 @@
+package com.travelapi.multidestination.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class DayAllocationOptimizerTest {
+
+    private static final double INF = Double.POSITIVE_INFINITY;
+
+    @Test
+    void dynamicProgrammingMatchesEveryComposition() {
+        Random random = new Random(11);
+        int[][] shapes = {{1, 5, 2, 6}, {2, 9, 2, 6}, {3, 14, 2, 7}, {3, 10, 3, 4}, {4, 16, 2, 6}, {5, 20, 3, 5}};
+
+        for (int[] shape : shapes) {
+            int k = shape[0];
+            int totalDays = shape[1];
+            int minDays = shape[2];
+            int maxDays = shape[3];
+
+            for (int instance = 0; instance < 25; instance++) {
+                double[][] fares = randomFares(random, k, totalDays, 0.1);
+                double[] dailyCosts = randomDailyCosts(random, k);
+
+                int[] stays = DayAllocationOptimizer.optimize(k, totalDays, minDays, maxDays,
+                        (rank, day) -> fares[rank][day], dailyCosts);
+                double expected = bruteForce(new int[k], 0, 0, totalDays, minDays, maxDays, fares, dailyCosts);
+
+                if (expected == INF) {
+                    assertThat(stays).isNull();
+                } else {
+                    assertThat(stays).hasSize(k);
+                    int total = 0;
+                    for (int stay : stays) {
+                        assertThat(stay).isBetween(minDays, maxDays);
+                        total += stay;
+                    }
+                    assertThat(total).isEqualTo(totalDays);
+                    assertThat(cost(stays, fares, dailyCosts)).isCloseTo(expected, within(1e-9));
+                }
+            }
+        }
+    }
+
+    @Test
+    void cheapTransferDayDecidesTheSplit() {
+        // 10 jours, 2 villes de 3 à 7 jours : seul le transfert du jour 6 est bon marché
+        double[][] fares = new double[3][11];
+        for (int day = 0; day <= 10; day++) {
+            fares[0][day] = 100;
+            fares[1][day] = day == 6 ? 10 : 200;
+            fares[2][day] = 100;
+        }
+
+        int[] stays = DayAllocationOptimizer.optimize(2, 10, 3, 7, (rank, day) -> fares[rank][day], new double[]{0, 0});
+
+        assertThat(stays).containsExactly(6, 4);
+    }
+
+    @Test
+    void infeasibleBoundsHaveNoAllocation() {
+        assertThat(DayAllocationOptimizer.optimize(3, 5, 2, 4, (rank, day) -> 1, new double[3])).isNull();
+        assertThat(DayAllocationOptimizer.optimize(2, 12, 2, 5, (rank, day) -> 1, new double[2])).isNull();
+        assertThat(DayAllocationOptimizer.optimize(2, 8, 2, 6, (rank, day) -> INF, new double[2])).isNull();
+    }
+
+    @Test
+    void balancedSpreadsTheRemainderInCityOrder() {
+        assertThat(DayAllocationOptimizer.balanced(3, 11, 2, 5)).containsExactly(4, 4, 3);
+        assertThat(DayAllocationOptimizer.balanced(3, 14, 2, 5)).containsExactly(5, 5, 4);
+        assertThat(DayAllocationOptimizer.balanced(3, 16, 2, 5)).isNull();
+    }
+
+    /**
+     * Coût minimal sur toutes les compositions de la durée respectant les bornes
+     */
+    private static double bruteForce(int[] stays, int position, int used, int totalDays, int minDays, int maxDays,
+                                     double[][] fares, double[] dailyCosts) {
+        if (position == stays.length) {
+            return used == totalDays ? cost(stays, fares, dailyCosts) : INF;
+        }
+
+        double best = INF;
+        for (int stay = minDays; stay <= maxDays && used + stay <= totalDays; stay++) {
+            stays[position] = stay;
+            best = Math.min(best, bruteForce(stays, position + 1, used + stay, totalDays, minDays, maxDays,
+                    fares, dailyCosts));
+        }
+        return best;
+    }
+
+    private static double cost(int[] stays, double[][] fares, double[] dailyCosts) {
+        double total = fares[0][0];
+        int day = 0;
+        for (int rank = 1; rank <= stays.length; rank++) {
+            day += stays[rank - 1];
+            total += stays[rank - 1] * dailyCosts[rank - 1] + fares[rank][day];
+        }
+        return total;
+    }
+
+    private static double[][] randomFares(Random random, int k, int totalDays, double missingRatio) {
+        double[][] fares = new double[k + 1][totalDays + 1];
+        for (int rank = 0; rank <= k; rank++) {
+            for (int day = 0; day <= totalDays; day++) {
+                fares[rank][day] = random.nextDouble() < missingRatio ? INF : 20 + random.nextInt(480);
+            }
+        }
+        return fares;
+    }
+
+    private static double[] randomDailyCosts(Random random, int k) {
+        double[] dailyCosts = new double[k];
+        for (int i = 0; i < k; i++) {
+            dailyCosts[i] = 50 + random.nextInt(100);
+        }
+        return dailyCosts;
+    }
+}
@@ -0,0 +1,86 @@
+package com.travelapi.multidestination.service;
+
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.ServerAddress;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import com.travelapi.multidestination.model.Itinerary;
+import org.bson.BsonDocument;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.ReactiveBulkOperations;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ItineraryWriteBehindBufferTest {
+
+    private ReactiveBulkOperations bulkOperations;
+    private ItineraryWriteBehindBuffer buffer;
+
+    @BeforeEach
+    void setUp() {
+        ReactiveMongoTemplate mongoTemplate = mock(ReactiveMongoTemplate.class);
+        bulkOperations = mock(ReactiveBulkOperations.class);
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Itinerary.class)).thenReturn(bulkOperations);
+        when(bulkOperations.insert(anyList())).thenReturn(bulkOperations);
+
+        // Un lot est envoyé dès que 7 itinéraires sont en tampon ; pas de vidage périodique
+        buffer = new ItineraryWriteBehindBuffer(mongoTemplate, 7, 100, 60_000);
+    }
+
+    @Test
+    void rejectedDocumentFailsOnlyTheWriteThatContainedIt() {
+        // Le document d'indice 3 du lot appartient à la deuxième écriture (indices 2 à 4)
+        MongoBulkWriteException bulkError = new MongoBulkWriteException(
+                BulkWriteResult.acknowledged(6, 0, 0, null, Collections.emptyList()),
+                Collections.singletonList(new BulkWriteError(11000, "E11000 duplicate key", new BsonDocument(), 3)),
+                null, new ServerAddress());
+        when(bulkOperations.execute()).thenReturn(Mono.error(new DuplicateKeyException("duplicate key", bulkError)));
+
+        CompletableFuture<Void> first = buffer.write(itineraries("first", 2)).toFuture();
+        CompletableFuture<Void> second = buffer.write(itineraries("second", 3)).toFuture();
+        CompletableFuture<Void> third = buffer.write(itineraries("third", 2)).toFuture();
+
+        assertThat(first).isCompleted();
+        assertThat(second).isCompletedExceptionally();
+        assertThat(third).isCompleted();
+
+        ItineraryWriteBehindBuffer.Stats stats = buffer.getStats();
+        assertThat(stats.getFlushedItineraries()).isEqualTo(6);
+        assertThat(stats.getFailedItineraries()).isEqualTo(1);
+        assertThat(stats.getAdmittedCount()).isZero();
+    }
+
+    @Test
+    void batchFailureWithoutDocumentErrorsFailsEveryWrite() {
+        when(bulkOperations.execute()).thenReturn(Mono.error(new DataAccessResourceFailureException("timeout")));
+
+        CompletableFuture<Void> first = buffer.write(itineraries("first", 3)).toFuture();
+        CompletableFuture<Void> second = buffer.write(itineraries("second", 4)).toFuture();
+
+        assertThat(first).isCompletedExceptionally();
+        assertThat(second).isCompletedExceptionally();
+        assertThat(buffer.getStats().getFailedItineraries()).isEqualTo(7);
+    }
+
+    private static List<Itinerary> itineraries(String searchId, int count) {
+        List<Itinerary> itineraries = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            itineraries.add(Itinerary.builder().id(searchId + "-" + i).searchId(searchId).build());
+        }
+        return itineraries;
+    }
+}
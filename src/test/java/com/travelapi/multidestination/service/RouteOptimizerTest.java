@@ -0,0 +1,203 @@
+package com.travelapi.multidestination.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class RouteOptimizerTest {
+
+    private static final double INF = Double.POSITIVE_INFINITY;
+
+    @Test
+    void heldKarpFindsTheBruteForceOptimum() {
+        Random random = new Random(42);
+
+        for (int k = 1; k <= 7; k++) {
+            for (int instance = 0; instance < 30; instance++) {
+                Fares fares = Fares.random(random, k, 0.15);
+
+                RouteOptimizer.Route route = RouteOptimizer.optimize(fares.outbound, fares.transfers, fares.inbound);
+                double expected = bruteForce(fares);
+
+                if (expected == INF) {
+                    assertThat(route).isNull();
+                } else {
+                    assertThat(route).isNotNull();
+                    assertIsPermutation(route.getOrder(), k);
+                    assertThat(route.getCost()).isCloseTo(expected, within(1e-9));
+                    assertThat(RouteOptimizer.cost(route.getOrder(), fares.outbound, fares.transfers, fares.inbound))
+                            .isCloseTo(expected, within(1e-9));
+                }
+            }
+        }
+    }
+
+    @Test
+    void twoOptIsNeverBelowTheExactOptimum() {
+        Random random = new Random(7);
+
+        for (int instance = 0; instance < 50; instance++) {
+            Fares fares = Fares.random(random, 8, 0);
+
+            RouteOptimizer.Route exact = RouteOptimizer.optimize(fares.outbound, fares.transfers, fares.inbound);
+            RouteOptimizer.Route heuristic =
+                    RouteOptimizer.nearestNeighbourWithTwoOpt(fares.outbound, fares.transfers, fares.inbound);
+
+            assertIsPermutation(heuristic.getOrder(), 8);
+            assertThat(heuristic.getCost())
+                    .isCloseTo(RouteOptimizer.cost(heuristic.getOrder(), fares.outbound, fares.transfers, fares.inbound),
+                            within(1e-9))
+                    .isGreaterThanOrEqualTo(exact.getCost() - 1e-9);
+        }
+    }
+
+    @Test
+    void twoOptRepairsAGreedyDeadEnd() {
+        // Le glouton enchaîne 0 → 1 → 2, dont le retour coûte 100 ; inverser les deux derniers rangs donne 13
+        Fares fares = Fares.uniform(3, 50);
+        fares.outbound = new double[]{1, 5, 5};
+        fares.inbound = new double[]{50, 1, 100};
+        fares.setTransfer(0, 1, 1);
+        fares.setTransfer(1, 2, 1);
+        fares.setTransfer(0, 2, 10);
+        fares.setTransfer(2, 1, 1);
+
+        RouteOptimizer.Route heuristic =
+                RouteOptimizer.nearestNeighbourWithTwoOpt(fares.outbound, fares.transfers, fares.inbound);
+
+        assertThat(heuristic.getOrder()).containsExactly(0, 2, 1);
+        assertThat(heuristic.getCost()).isEqualTo(13);
+        assertThat(RouteOptimizer.optimize(fares.outbound, fares.transfers, fares.inbound).getCost()).isEqualTo(13);
+    }
+
+    @Test
+    void heuristicIsUsedBeyondTheExactLimit() {
+        // Chaîne 0 → 1 → … → k-1 à 1 par segment, tout le reste à 100 : l'optimum est connu
+        int k = RouteOptimizer.MAX_EXACT_CITIES + 1;
+        Fares fares = Fares.uniform(k, 100);
+        fares.outbound[0] = 1;
+        fares.inbound[k - 1] = 1;
+        for (int i = 0; i + 1 < k; i++) {
+            fares.setTransfer(i, i + 1, 1);
+        }
+
+        RouteOptimizer.Route route = RouteOptimizer.optimize(fares.outbound, fares.transfers, fares.inbound);
+
+        assertThat(route.getCost()).isEqualTo(k + 1);
+        for (int position = 0; position < k; position++) {
+            assertThat(route.getOrder()[position]).isEqualTo(position);
+        }
+    }
+
+    private static double bruteForce(Fares fares) {
+        int k = fares.outbound.length;
+        int[] order = new int[k];
+        for (int i = 0; i < k; i++) {
+            order[i] = i;
+        }
+
+        double best = INF;
+        do {
+            best = Math.min(best, RouteOptimizer.cost(order, fares.outbound, fares.transfers, fares.inbound));
+        } while (nextPermutation(order));
+        return best;
+    }
+
+    private static boolean nextPermutation(int[] a) {
+        int i = a.length - 2;
+        while (i >= 0 && a[i] >= a[i + 1]) {
+            i--;
+        }
+        if (i < 0) {
+            return false;
+        }
+
+        int j = a.length - 1;
+        while (a[j] <= a[i]) {
+            j--;
+        }
+        swap(a, i, j);
+        for (int l = i + 1, r = a.length - 1; l < r; l++, r--) {
+            swap(a, l, r);
+        }
+        return true;
+    }
+
+    private static void swap(int[] a, int i, int j) {
+        int tmp = a[i];
+        a[i] = a[j];
+        a[j] = tmp;
+    }
+
+    private static void assertIsPermutation(int[] order, int k) {
+        int[] sorted = order.clone();
+        Arrays.sort(sorted);
+        for (int i = 0; i < k; i++) {
+            assertThat(sorted[i]).isEqualTo(i);
+        }
+    }
+
+    /**
+     * Tarifs d'un circuit de k villes, au format attendu par {@link RouteOptimizer}
+     */
+    private static final class Fares {
+        private double[] outbound;
+        private final double[][] transfers;
+        private double[] inbound;
+        private final int k;
+
+        private Fares(int k) {
+            this.k = k;
+            this.outbound = new double[k];
+            this.inbound = new double[k];
+            this.transfers = new double[k][];
+            for (int rank = 1; rank < k; rank++) {
+                transfers[rank] = new double[k * k];
+            }
+        }
+
+        static Fares uniform(int k, double fare) {
+            Fares fares = new Fares(k);
+            Arrays.fill(fares.outbound, fare);
+            Arrays.fill(fares.inbound, fare);
+            for (int rank = 1; rank < k; rank++) {
+                Arrays.fill(fares.transfers[rank], fare);
+            }
+            return fares;
+        }
+
+        /**
+         * Tarifs aléatoires dépendant du rang, une part d'entre eux non tarifables
+         */
+        static Fares random(Random random, int k, double missingRatio) {
+            Fares fares = new Fares(k);
+            for (int j = 0; j < k; j++) {
+                fares.outbound[j] = fare(random, missingRatio);
+                fares.inbound[j] = fare(random, missingRatio);
+            }
+            for (int rank = 1; rank < k; rank++) {
+                for (int cell = 0; cell < k * k; cell++) {
+                    fares.transfers[rank][cell] = cell / k == cell % k ? INF : fare(random, missingRatio);
+                }
+            }
+            return fares;
+        }
+
+        /**
+         * Même tarif de i vers j à tous les rangs
+         */
+        void setTransfer(int from, int to, double fare) {
+            for (int rank = 1; rank < k; rank++) {
+                transfers[rank][from * k + to] = fare;
+            }
+        }
+
+        private static double fare(Random random, double missingRatio) {
+            return random.nextDouble() < missingRatio ? INF : 20 + random.nextInt(480);
+        }
+    }
+}
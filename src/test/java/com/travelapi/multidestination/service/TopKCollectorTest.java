@@ -0,0 +1,124 @@
+package com.travelapi.multidestination.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TopKCollectorTest {
+
+    @Test
+    void keepsTheKLowestScoresInOrder() {
+        Random random = new Random(3);
+        List<Integer> scores = distinctScores(random, 500);
+        TopKCollector<Integer> collector = new TopKCollector<>(10);
+
+        for (int score : scores) {
+            collector.offer(score, score);
+        }
+
+        assertThat(collector.toSortedList()).containsExactlyElementsOf(lowest(scores, 10));
+        assertThat(collector.getOfferedCount()).isEqualTo(500);
+    }
+
+    @Test
+    void thresholdIsTheWorstRetainedScoreOnceFull() {
+        TopKCollector<String> collector = new TopKCollector<>(3);
+
+        collector.offer("a", 40);
+        collector.offer("b", 10);
+        assertThat(collector.threshold()).isEqualTo(Double.POSITIVE_INFINITY);
+        assertThat(collector.wouldAccept(1_000)).isTrue();
+
+        collector.offer("c", 30);
+        assertThat(collector.threshold()).isEqualTo(40);
+        assertThat(collector.wouldAccept(40)).isFalse();
+        assertThat(collector.wouldAccept(39)).isTrue();
+
+        assertThat(collector.offer("d", 20)).isTrue();
+        assertThat(collector.threshold()).isEqualTo(30);
+        assertThat(collector.offer("e", 35)).isFalse();
+        assertThat(collector.toSortedList()).containsExactly("b", "d", "c");
+    }
+
+    @Test
+    void tieWithTheWorstRetainedKeepsTheFirstArrival() {
+        TopKCollector<String> collector = new TopKCollector<>(2);
+
+        collector.offer("first", 10);
+        collector.offer("second", 20);
+
+        assertThat(collector.offer("late", 20)).isFalse();
+        assertThat(collector.toSortedList()).containsExactly("first", "second");
+    }
+
+    @Test
+    void observerSeesEveryAcceptedCandidate() {
+        List<String> accepted = new ArrayList<>();
+        TopKCollector<String> collector = new TopKCollector<>(2, accepted::add);
+
+        collector.offer("a", 50);
+        collector.offer("b", 40);
+        collector.offer("c", 60);
+        collector.offer("d", 10);
+
+        assertThat(accepted).containsExactly("a", "b", "d");
+    }
+
+    @Test
+    void concurrentOffersKeepTheSameTopK() throws Exception {
+        List<Integer> scores = distinctScores(new Random(5), 20_000);
+        TopKCollector<Integer> collector = new TopKCollector<>(25);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+
+        try {
+            for (int thread = 0; thread < 8; thread++) {
+                int offset = thread;
+                executor.execute(() -> {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                    for (int i = offset; i < scores.size(); i += 8) {
+                        int score = scores.get(i);
+                        if (collector.wouldAccept(score)) {
+                            collector.offer(score, score);
+                        }
+                    }
+                });
+            }
+            start.countDown();
+        } finally {
+            executor.shutdown();
+        }
+
+        assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+        assertThat(collector.toSortedList()).containsExactlyElementsOf(lowest(scores, 25));
+    }
+
+    private static List<Integer> distinctScores(Random random, int count) {
+        List<Integer> scores = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            scores.add(i * 3);
+        }
+        Collections.shuffle(scores, random);
+        return scores;
+    }
+
+    private static List<Integer> lowest(List<Integer> scores, int k) {
+        return scores.stream().sorted(Comparator.naturalOrder()).limit(k).collect(Collectors.toList());
+    }
+}
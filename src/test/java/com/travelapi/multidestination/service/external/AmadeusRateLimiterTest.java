@@ -0,0 +1,123 @@
+package com.travelapi.multidestination.service.external;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AmadeusRateLimiterTest {
+
+    @Test
+    void tokenBucketPacesRequestsToTheQuota() {
+        AmadeusRateLimiter limiter = limiter(20, 1, 4, 4);
+
+        long start = System.nanoTime();
+        Long count = Flux.range(0, 11)
+                .flatMap(i -> limiter.throttle(Mono.just(i)))
+                .count()
+                .block(Duration.ofSeconds(5));
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        // Le premier jeton est disponible d'emblée, les dix suivants arrivent toutes les 50 ms
+        assertThat(count).isEqualTo(11);
+        assertThat(elapsedMillis).isGreaterThanOrEqualTo(450);
+        assertThat(limiter.getStats().getGrantedPermits()).isEqualTo(11);
+    }
+
+    @Test
+    void concurrencyStaysUnderTheLimit() {
+        AmadeusRateLimiter limiter = limiter(1000, 20, 2, 2);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+
+        Flux.range(0, 12)
+                .flatMap(i -> limiter.throttle(Mono.defer(() -> {
+                    peak.accumulateAndGet(running.incrementAndGet(), Math::max);
+                    // Décompter avant que le limiteur ne libère la place et ne lance l'appel suivant
+                    return Mono.delay(Duration.ofMillis(20)).doOnSuccess(tick -> running.decrementAndGet());
+                })))
+                .blockLast(Duration.ofSeconds(5));
+
+        assertThat(peak).hasValue(2);
+        assertThat(limiter.getStats().getInFlight()).isZero();
+    }
+
+    @Test
+    void fastResponsesAtTheLimitRaiseItAdditively() {
+        AmadeusRateLimiter limiter = limiter(1000, 10, 1, 4);
+
+        limiter.throttle(Mono.just("ok")).block(Duration.ofSeconds(1));
+
+        assertThat(limiter.getStats().getConcurrencyLimit()).isEqualTo(2.0);
+    }
+
+    @Test
+    void upstreamFailureLowersTheLimitMultiplicatively() {
+        AmadeusRateLimiter limiter = limiter(1000, 10, 10, 10);
+
+        limiter.throttle(Mono.error(WebClientResponseException.create(503, "Service Unavailable", null, null, null)))
+                .onErrorResume(e -> Mono.empty())
+                .block(Duration.ofSeconds(1));
+
+        assertThat(limiter.getStats().getConcurrencyLimit()).isEqualTo(9.0);
+    }
+
+    @Test
+    void throttledResponseHalvesTheLimitAndPausesForRetryAfter() {
+        AmadeusRateLimiter limiter = limiter(1000, 10, 8, 8);
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("Retry-After", "1");
+
+        limiter.throttle(Mono.error(WebClientResponseException.create(429, "Too Many Requests", headers, null, null)))
+                .onErrorResume(e -> Mono.empty())
+                .block(Duration.ofSeconds(1));
+
+        assertThat(limiter.getStats().getConcurrencyLimit()).isEqualTo(4.0);
+        assertThat(limiter.getStats().getThrottledResponses()).isEqualTo(1);
+
+        long start = System.nanoTime();
+        limiter.throttle(Mono.just("ok")).block(Duration.ofSeconds(3));
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isGreaterThanOrEqualTo(900);
+    }
+
+    @Test
+    void waitingClientsAreServedInTurn() {
+        AmadeusRateLimiter limiter = limiter(20, 1, 1, 1);
+        List<String> order = Collections.synchronizedList(new ArrayList<>());
+
+        // Une grosse recherche met dix requêtes en file avant qu'une petite n'en ajoute deux
+        Flux<String> large = Flux.range(0, 10)
+                .flatMap(i -> limiter.throttle(Mono.fromSupplier(() -> record(order, "large"))))
+                .contextWrite(AmadeusRateLimiter.forClient("large"));
+        Flux<String> small = Flux.range(0, 2)
+                .flatMap(i -> limiter.throttle(Mono.fromSupplier(() -> record(order, "small"))))
+                .contextWrite(AmadeusRateLimiter.forClient("small"));
+
+        Flux.merge(large, small).blockLast(Duration.ofSeconds(5));
+
+        assertThat(order).hasSize(12);
+        assertThat(order.lastIndexOf("small")).isLessThanOrEqualTo(4);
+    }
+
+    private static AmadeusRateLimiter limiter(double requestsPerSecond, int burst, int initialConcurrency,
+                                              int maxConcurrency) {
+        return new AmadeusRateLimiter(new SimpleMeterRegistry(), requestsPerSecond, burst,
+                initialConcurrency, 1, maxConcurrency, 2.0);
+    }
+
+    private static String record(List<String> order, String client) {
+        order.add(client);
+        return client;
+    }
+}
@@ -0,0 +1,157 @@
+package com.travelapi.multidestination.service.external;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AmadeusTokenManagerTest {
+
+    private final List<AmadeusTokenManager> managers = new ArrayList<>();
+
+    @AfterEach
+    void shutdownManagers() {
+        managers.forEach(AmadeusTokenManager::shutdown);
+    }
+
+    @Test
+    void concurrentCallersShareASingleRefresh() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        SimulatedAmadeusAuthClient authClient = new SimulatedAmadeusAuthClient() {
+            @Override
+            public AccessToken requestToken() {
+                // Le serveur d'authentification ne répond qu'une fois tous les appelants en attente
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.requestToken();
+            }
+        };
+        AmadeusTokenManager manager = manager(authClient, 1799, 60);
+
+        List<CompletableFuture<String>> callers = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            callers.add(manager.getAccessToken().toFuture());
+        }
+        release.countDown();
+
+        for (CompletableFuture<String> caller : callers) {
+            assertThat(caller.get(5, TimeUnit.SECONDS)).isEqualTo("simulated-token-1");
+        }
+        assertThat(authClient.getIssuedTokens()).isEqualTo(1);
+        assertThat(manager.getRefreshCount()).isEqualTo(1);
+    }
+
+    @Test
+    void tokenIsRefreshedInTheBackgroundBeforeItExpires() throws Exception {
+        SimulatedAmadeusAuthClient authClient = new SimulatedAmadeusAuthClient();
+        // Jeton de 2 s : le rafraîchissement est dû à mi-vie, une seconde avant l'expiration
+        AmadeusTokenManager manager = manager(authClient, 2, 60);
+
+        assertThat(manager.getAccessToken().block(Duration.ofSeconds(5))).isEqualTo("simulated-token-1");
+        Thread.sleep(1200);
+
+        // Le jeton courant, encore valide, est servi sans attendre le rafraîchissement qu'il déclenche
+        assertThat(manager.getAccessToken().block(Duration.ofSeconds(1))).isEqualTo("simulated-token-1");
+        // Le nouveau jeton est en place avant l'expiration du premier
+        assertThat(awaitToken(manager, "simulated-token-2", Duration.ofMillis(500))).isEqualTo("simulated-token-2");
+        assertThat(authClient.getIssuedTokens()).isEqualTo(2);
+    }
+
+    @Test
+    void shortLivedTokensAreNotRefreshedInATightLoop() throws Exception {
+        SimulatedAmadeusAuthClient authClient = new SimulatedAmadeusAuthClient();
+        AmadeusTokenManager manager = manager(authClient, 1, 60);
+
+        manager.getAccessToken().block(Duration.ofSeconds(5));
+        Thread.sleep(1500);
+
+        // Le rafraîchissement planifié ne part pas avant le délai minimal, même si le jeton a expiré
+        assertThat(authClient.getIssuedTokens()).isEqualTo(1);
+        assertThat(manager.getRefreshCount()).isEqualTo(1);
+    }
+
+    @Test
+    void tokenResponseWithoutExpiresInIsRejected() throws Exception {
+        AmadeusTokenManager manager = manager(httpAuthClient("{\"access_token\":\"abc\"}"), 60);
+
+        assertThatThrownBy(() -> manager.getAccessToken().block(Duration.ofSeconds(5)))
+                .isInstanceOf(IllegalStateException.class)
+                .hasRootCauseMessage("Durée de validité du token Amadeus absente ou invalide: null");
+
+        // Un échec est retenté après le délai de nouvelle tentative, pas à chaque appel suivant
+        Thread.sleep(500);
+        assertThat(manager.getRefreshCount()).isEqualTo(1);
+    }
+
+    @Test
+    void tokenResponseWithNonPositiveExpiresInIsRejected() {
+        HttpAmadeusAuthClient authClient = httpAuthClient("{\"access_token\":\"abc\",\"expires_in\":0}");
+
+        assertThatThrownBy(authClient::requestToken)
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("Durée de validité du token Amadeus absente ou invalide: 0");
+    }
+
+    private AmadeusTokenManager manager(SimulatedAmadeusAuthClient authClient, long tokenTtlSeconds,
+                                        long refreshAheadSeconds) {
+        ReflectionTestUtils.setField(authClient, "tokenTtlSeconds", tokenTtlSeconds);
+        return manager(authClient, refreshAheadSeconds);
+    }
+
+    private AmadeusTokenManager manager(AmadeusAuthClient authClient, long refreshAheadSeconds) {
+        AmadeusTokenManager manager = new AmadeusTokenManager(authClient, refreshAheadSeconds);
+        managers.add(manager);
+        return manager;
+    }
+
+    /**
+     * Client HTTP dont le serveur d'authentification répond toujours le corps JSON donné
+     */
+    private static HttpAmadeusAuthClient httpAuthClient(String responseBody) {
+        WebClient webClient = WebClient.builder()
+                .exchangeFunction(request -> Mono.just(ClientResponse.create(HttpStatus.OK)
+                        .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                        .body(responseBody)
+                        .build()))
+                .build();
+        UpstreamGuard authGuard = new UpstreamGuard("auth", CircuitBreaker.ofDefaults("auth"),
+                Bulkhead.ofDefaults("auth"), 0, Duration.ofMillis(5), Duration.ofMillis(20));
+
+        HttpAmadeusAuthClient authClient = new HttpAmadeusAuthClient(webClient, authGuard);
+        ReflectionTestUtils.setField(authClient, "authUrl", "http://localhost/v1/security/oauth2/token");
+        ReflectionTestUtils.setField(authClient, "apiKey", "key");
+        ReflectionTestUtils.setField(authClient, "apiSecret", "secret");
+        return authClient;
+    }
+
+    private static String awaitToken(AmadeusTokenManager manager, String expected, Duration timeout)
+            throws InterruptedException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        String token = manager.getAccessToken().block(Duration.ofSeconds(1));
+        while (!expected.equals(token) && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+            token = manager.getAccessToken().block(Duration.ofSeconds(1));
+        }
+        return token;
+    }
+}
@@ -0,0 +1,81 @@
+package com.travelapi.multidestination.service.external;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.travelapi.multidestination.model.FlightLeg;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Arrays;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FlightOffersResponseParserTest {
+
+    private static final LocalDate DATE = LocalDate.of(2030, 6, 1);
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final AmadeusLocationCodes locationCodes =
+            new AmadeusLocationCodes(new ClassPathResource("data/amadeus-locations.tsv"));
+
+    @Test
+    void airportCodesAreMappedToTheRequestedCities() throws Exception {
+        LegKey londonParis = new LegKey("LON", "PAR", DATE);
+
+        Map<LegKey, FlightLeg> legs = FlightOffersResponseParser.parse(response(
+                offer("210.00", itinerary("LGW", "ORY", "2030-06-01T14:00:00", "2030-06-01T16:10:00")),
+                offer("120.50", itinerary("LHR", "CDG", "2030-06-01T08:30:00", "2030-06-01T10:45:00"))),
+                Arrays.asList(londonParis), locationCodes);
+
+        assertThat(legs).containsOnlyKeys(londonParis);
+        FlightLeg leg = legs.get(londonParis);
+        assertThat(leg.getFrom()).isEqualTo("LON");
+        assertThat(leg.getTo()).isEqualTo("PAR");
+        assertThat(leg.getPrice()).isEqualTo(120.50);
+        assertThat(leg.getDepartureTime()).isEqualTo(LocalTime.of(8, 30));
+        assertThat(leg.getDuration()).isEqualTo("2h 15m");
+    }
+
+    @Test
+    void multiItineraryOffersAreNotSplitIntoLegFares() throws Exception {
+        LegKey londonParis = new LegKey("LON", "PAR", DATE);
+        LegKey parisRome = new LegKey("PAR", "ROM", DATE.plusDays(3));
+
+        Map<LegKey, FlightLeg> legs = FlightOffersResponseParser.parse(response(
+                offer("300.00",
+                        itinerary("LHR", "CDG", "2030-06-01T08:30:00", "2030-06-01T10:45:00"),
+                        itinerary("CDG", "FCO", "2030-06-04T09:00:00", "2030-06-04T11:05:00"))),
+                Arrays.asList(londonParis, parisRome), locationCodes);
+
+        assertThat(legs).isEmpty();
+    }
+
+    @Test
+    void offersForUnrequestedLegsOrDatesAreIgnored() throws Exception {
+        Map<LegKey, FlightLeg> legs = FlightOffersResponseParser.parse(response(
+                offer("90.00", itinerary("LHR", "CDG", "2030-06-02T08:30:00", "2030-06-02T10:45:00")),
+                offer("95.00", itinerary("OPO", "LIS", "2030-06-01T07:00:00", "2030-06-01T08:00:00"))),
+                Arrays.asList(new LegKey("LON", "PAR", DATE), new LegKey("POR", "LIS", DATE)), locationCodes);
+
+        assertThat(legs).containsOnlyKeys(new LegKey("POR", "LIS", DATE));
+    }
+
+    private JsonNode response(String... offers) throws Exception {
+        return objectMapper.readTree("{\"meta\":{\"count\":" + offers.length + "},\"data\":["
+                + String.join(",", offers) + "]}");
+    }
+
+    private static String offer(String total, String... itineraries) {
+        return "{\"type\":\"flight-offer\",\"id\":\"1\",\"itineraries\":[" + String.join(",", itineraries) + "],"
+                + "\"price\":{\"currency\":\"EUR\",\"total\":\"" + total + "\"}}";
+    }
+
+    private static String itinerary(String from, String to, String departure, String arrival) {
+        return "{\"segments\":[{\"carrierCode\":\"AF\",\"number\":\"1234\","
+                + "\"departure\":{\"iataCode\":\"" + from + "\",\"at\":\"" + departure + "\"},"
+                + "\"arrival\":{\"iataCode\":\"" + to + "\",\"at\":\"" + arrival + "\"}}]}";
+    }
+}
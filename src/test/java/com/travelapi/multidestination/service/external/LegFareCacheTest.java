@@ -0,0 +1,114 @@
+package com.travelapi.multidestination.service.external;
+
+import com.travelapi.multidestination.model.FlightLeg;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LegFareCacheTest {
+
+    private static final LocalDate DATE = LocalDate.of(2030, 6, 1);
+
+    @Test
+    void hitsAndMissesAreCounted() {
+        LegFareCache cache = new LegFareCache(600, 100);
+        FlightLeg leg = leg(0);
+
+        cache.put(key(0), leg);
+
+        assertThat(cache.get(key(0))).isSameAs(leg);
+        assertThat(cache.get(key(1))).isNull();
+        assertThat(cache.getStats().getHitCount()).isEqualTo(1);
+        assertThat(cache.getStats().getMissCount()).isEqualTo(1);
+        assertThat(cache.getStats().getSize()).isEqualTo(1);
+    }
+
+    @Test
+    void expiredEntriesAreMissesAndRemoved() {
+        LegFareCache cache = new LegFareCache(0, 100);
+
+        cache.put(key(0), leg(0));
+
+        assertThat(cache.get(key(0))).isNull();
+        assertThat(cache.getStats().getSize()).isZero();
+        assertThat(cache.getStats().getEvictionCount()).isEqualTo(1);
+    }
+
+    @Test
+    void leastRecentlyUsedEntriesAreEvictedBeyondTheMaxSize() throws Exception {
+        LegFareCache cache = new LegFareCache(600, 10);
+
+        for (int i = 0; i < 10; i++) {
+            cache.put(key(i), leg(i));
+            Thread.sleep(1);
+        }
+        // Le segment 0, relu, devient le plus récemment utilisé
+        cache.get(key(0));
+        Thread.sleep(1);
+
+        cache.put(key(10), leg(10));
+
+        // L'éviction libère un dixième de la taille maximale : les deux segments les plus anciens
+        assertThat(cache.getStats().getSize()).isEqualTo(9);
+        assertThat(cache.get(key(0))).isNotNull();
+        assertThat(cache.get(key(1))).isNull();
+        assertThat(cache.get(key(2))).isNull();
+        assertThat(cache.get(key(3))).isNotNull();
+        assertThat(cache.get(key(10))).isNotNull();
+    }
+
+    @Test
+    void concurrentReadsAndWritesKeepTheSizeBounded() throws Exception {
+        int threads = 8;
+        LegFareCache cache = new LegFareCache(600, 100);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+        try {
+            List<CompletableFuture<Void>> workers = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                workers.add(CompletableFuture.runAsync(() -> {
+                    for (int i = 0; i < 20_000; i++) {
+                        int leg = ThreadLocalRandom.current().nextInt(500);
+                        FlightLeg cached = cache.get(key(leg));
+                        if (cached == null) {
+                            cache.put(key(leg), leg(leg));
+                        } else {
+                            assertThat(cached.getTo()).isEqualTo("D" + leg);
+                        }
+                    }
+                }, executor));
+            }
+            CompletableFuture.allOf(workers.toArray(new CompletableFuture[0])).get(30, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // Une éviction en cours peut laisser passer quelques ajouts concurrents au-delà de la limite
+        LegFareCache.Stats stats = cache.getStats();
+        assertThat(stats.getSize()).isLessThanOrEqualTo(100 + threads);
+        assertThat(stats.getHitCount() + stats.getMissCount()).isEqualTo(threads * 20_000L);
+        assertThat(stats.getEvictionCount()).isPositive();
+    }
+
+    private static LegKey key(int leg) {
+        return new LegKey("LON", "D" + leg, DATE);
+    }
+
+    private static FlightLeg leg(int leg) {
+        return FlightLeg.builder()
+                .from("LON")
+                .to("D" + leg)
+                .departureDate(DATE)
+                .price(100 + leg)
+                .build();
+    }
+}
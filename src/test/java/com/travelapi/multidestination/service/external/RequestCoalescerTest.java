@@ -0,0 +1,116 @@
+package com.travelapi.multidestination.service.external;
+
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.entry;
+
+class RequestCoalescerTest {
+
+    private final RequestCoalescer<String, Integer> coalescer = new RequestCoalescer<>();
+    private final List<List<String>> loadedBatches = Collections.synchronizedList(new ArrayList<>());
+
+    @Test
+    void concurrentCallersShareOneLoadPerKey() throws Exception {
+        Sinks.One<Map<String, Integer>> firstLoad = Sinks.one();
+
+        CompletableFuture<Map<String, Integer>> first = coalescer.loadAll(Arrays.asList("a", "b"),
+                keys -> record(keys, firstLoad.asMono())).toFuture();
+        CompletableFuture<Map<String, Integer>> second = coalescer.loadAll(Arrays.asList("b", "c", "a"),
+                keys -> record(keys, Mono.just(values(keys)))).toFuture();
+
+        // Le second appel ne charge que la clé qui n'était pas déjà en vol, puis attend les autres
+        assertThat(loadedBatches).containsExactly(Arrays.asList("a", "b"), Collections.singletonList("c"));
+        assertThat(second).isNotDone();
+        assertThat(coalescer.getStats().getCollapsedCount()).isEqualTo(2);
+
+        firstLoad.tryEmitValue(values(Arrays.asList("a", "b")));
+
+        assertThat(first.get(1, TimeUnit.SECONDS)).containsOnly(entry("a", 1), entry("b", 2));
+        assertThat(second.get(1, TimeUnit.SECONDS)).containsOnly(entry("a", 1), entry("b", 2), entry("c", 3));
+        assertThat(coalescer.getStats().getLoadedCount()).isEqualTo(3);
+        assertThat(coalescer.getStats().getInFlightCount()).isZero();
+    }
+
+    @Test
+    void loadFailureFailsTheOwnerButOnlyRemovesTheKeyFromAttachedCallers() throws Exception {
+        Sinks.One<Map<String, Integer>> failingLoad = Sinks.one();
+
+        CompletableFuture<Map<String, Integer>> owner = coalescer.loadAll(Collections.singletonList("a"),
+                keys -> record(keys, failingLoad.asMono())).toFuture();
+        CompletableFuture<Map<String, Integer>> attached = coalescer.loadAll(Arrays.asList("a", "b"),
+                keys -> record(keys, Mono.just(values(keys)))).toFuture();
+
+        failingLoad.tryEmitError(new IllegalStateException("amont indisponible"));
+
+        assertThatThrownBy(() -> owner.get(1, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasRootCauseInstanceOf(IllegalStateException.class);
+        // Le segment en échec manque, celui que l'appelant a chargé lui-même reste
+        assertThat(attached.get(1, TimeUnit.SECONDS)).containsOnly(entry("b", 2));
+        assertThat(coalescer.getStats().getFailedCount()).isEqualTo(1);
+
+        // La clé n'est plus en vol : l'appel suivant la recharge
+        Map<String, Integer> retried = coalescer.loadAll(Collections.singletonList("a"),
+                keys -> record(keys, Mono.just(values(keys)))).block();
+        assertThat(retried).containsOnly(entry("a", 1));
+        assertThat(loadedBatches).hasSize(3);
+    }
+
+    @Test
+    void ownerCancellationDoesNotCancelTheSharedLoad() throws Exception {
+        Sinks.One<Map<String, Integer>> sharedLoad = Sinks.one();
+        AtomicBoolean loadCancelled = new AtomicBoolean();
+
+        Disposable owner = coalescer.loadAll(Arrays.asList("a", "b"),
+                keys -> record(keys, sharedLoad.asMono().doOnCancel(() -> loadCancelled.set(true)))).subscribe();
+        CompletableFuture<Map<String, Integer>> attached = coalescer.loadAll(Arrays.asList("a", "c"),
+                keys -> record(keys, Mono.just(values(keys)))).toFuture();
+
+        // Le client de la première recherche se déconnecte pendant le chargement
+        owner.dispose();
+        assertThat(loadCancelled).isFalse();
+        assertThat(attached).isNotDone();
+
+        sharedLoad.tryEmitValue(values(Arrays.asList("a", "b")));
+
+        assertThat(attached.get(1, TimeUnit.SECONDS)).containsOnly(entry("a", 1), entry("c", 3));
+        assertThat(coalescer.getStats().getInFlightCount()).isZero();
+    }
+
+    @Test
+    void keysMissingFromTheLoadResultMapToNull() {
+        Map<String, Integer> results = coalescer.loadAll(Arrays.asList("a", "b"),
+                keys -> Mono.just(values(Collections.singletonList("a")))).block();
+
+        assertThat(results).containsEntry("a", 1).containsEntry("b", null);
+    }
+
+    private Mono<Map<String, Integer>> record(List<String> keys, Mono<Map<String, Integer>> result) {
+        loadedBatches.add(keys);
+        return result;
+    }
+
+    private static Map<String, Integer> values(List<String> keys) {
+        Map<String, Integer> values = new HashMap<>();
+        for (String key : keys) {
+            values.put(key, key.charAt(0) - 'a' + 1);
+        }
+        return values;
+    }
+}
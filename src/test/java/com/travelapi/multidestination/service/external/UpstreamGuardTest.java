@@ -0,0 +1,91 @@
+package com.travelapi.multidestination.service.external;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class UpstreamGuardTest {
+
+    private final CircuitBreaker circuitBreaker = CircuitBreaker.of("test", CircuitBreakerConfig.custom()
+            .recordException(UpstreamGuard::isUpstreamFailure)
+            .build());
+    private final Bulkhead bulkhead = Bulkhead.of("test", BulkheadConfig.custom()
+            .maxConcurrentCalls(2)
+            .maxWaitDuration(Duration.ZERO)
+            .build());
+    private final UpstreamGuard guard = new UpstreamGuard("test", circuitBreaker, bulkhead,
+            2, Duration.ofMillis(5), Duration.ofMillis(20));
+
+    @Test
+    void callsWaitingForAdmissionDoNotHoldBulkheadPermits() {
+        // Dix fois plus d'appels que de places dans la cloison, espacés par le limiteur
+        AmadeusRateLimiter limiter = new AmadeusRateLimiter(new SimpleMeterRegistry(), 100, 1, 2, 1, 2, 2.0);
+
+        List<Integer> results = Flux.range(0, 20)
+                .flatMap(i -> guard.execute(Mono.delay(Duration.ofMillis(5)).thenReturn(i), true, limiter::throttle))
+                .collectList()
+                .block(Duration.ofSeconds(10));
+
+        assertThat(results).hasSize(20);
+        assertThat(bulkhead.getMetrics().getAvailableConcurrentCalls()).isEqualTo(2);
+    }
+
+    @Test
+    void upstreamFailuresAreRetriedForIdempotentCalls() {
+        AtomicInteger attempts = new AtomicInteger();
+        Mono<String> call = Mono.defer(() -> attempts.incrementAndGet() < 3
+                ? Mono.error(WebClientResponseException.create(503, "Service Unavailable", null, null, null))
+                : Mono.just("ok"));
+
+        assertThat(guard.execute(call, true).block(Duration.ofSeconds(5))).isEqualTo("ok");
+        assertThat(attempts).hasValue(3);
+        assertThat(guard.getStats().getRetryCount()).isEqualTo(2);
+    }
+
+    @Test
+    void upstreamFailuresAreNotRetriedForNonIdempotentCalls() {
+        AtomicInteger attempts = new AtomicInteger();
+        Mono<String> call = Mono.defer(() -> {
+            attempts.incrementAndGet();
+            return Mono.error(WebClientResponseException.create(HttpStatus.BAD_GATEWAY.value(), "Bad Gateway", null, null, null));
+        });
+
+        assertThatThrownBy(() -> guard.execute(call, false).block(Duration.ofSeconds(5)))
+                .isInstanceOf(WebClientResponseException.class);
+        assertThat(attempts).hasValue(1);
+    }
+
+    @Test
+    void openCircuitFailsWithoutAdmissionOrCall() {
+        circuitBreaker.transitionToOpenState();
+        AtomicInteger admissions = new AtomicInteger();
+        AtomicInteger attempts = new AtomicInteger();
+
+        Mono<String> call = Mono.fromSupplier(() -> {
+            attempts.incrementAndGet();
+            return "ok";
+        });
+
+        Mono<String> guarded = guard.execute(call, true,
+                attempt -> attempt.doOnSubscribe(subscription -> admissions.incrementAndGet()));
+
+        assertThatThrownBy(() -> guarded.block(Duration.ofSeconds(5))).isInstanceOf(CallNotPermittedException.class);
+        assertThat(admissions).hasValue(0);
+        assertThat(attempts).hasValue(0);
+    }
+}